@@ -6,13 +6,21 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.quantumdb.nemesis.analysis.Phase;
+import io.quantumdb.nemesis.analysis.PhaseWindows;
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.profiler.RecordType;
 import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
 
 
 @Slf4j
@@ -33,12 +41,38 @@ public class Grapher {
 	private static final int RESOLUTION = (1000 / SCALE);
 	private static final int LIMIT = WIDTH * RESOLUTION + SKIP_UNTIL;
 
+	// Every column shows the max, p99, p90 and p50 latency per type of record as increasingly opaque bands.
+	private static final double[] BAND_PERCENTILES = { 100.0, 99.0, 90.0, 50.0 };
+	private static final int[] BAND_ALPHAS = { 40, 80, 140, 220 };
+
+	/**
+	 * Graphs every scenario in the specified folder. With "--heatmap" as second argument, a heatmap of the latency
+	 * distribution over the entire run is drawn for every scenario as well.
+	 */
 	public static void main(String[] args) throws IOException {
 		File dir = new File(args[0]);
-		File[] scenarios = dir.listFiles(file -> file.isDirectory() && !file.getName().startsWith(".") && !file.getName().startsWith("_"));
-		for (File scenario : scenarios) {
-			new Grapher().graphResponseTimes(scenario);
-			log.info("Graphed: " + scenario.getAbsolutePath());
+		boolean heatmap = args.length > 1 && args[1].equals("--heatmap");
+		File[] scenarios = dir.listFiles(file -> file.isDirectory() && !file.getName().startsWith(".") && !file.getName().startsWith("_") && !file.getName().equals("graphs"));
+		new File(dir, "graphs").mkdirs();
+
+		// Scenarios are graphed in parallel, and the logs of every scenario are aggregated in parallel as well.
+		try {
+			Arrays.stream(scenarios).parallel().forEach(scenario -> {
+				try {
+					Grapher grapher = new Grapher();
+					grapher.graphResponseTimes(scenario);
+					if (heatmap) {
+						grapher.graphHeatmap(scenario);
+					}
+					log.info("Graphed: " + scenario.getAbsolutePath());
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
 		}
 	}
 	
@@ -46,6 +80,41 @@ public class Grapher {
 		drawSplit(folder);
 	}
 
+	/**
+	 * Draws the number of queries per latency bucket over the entire run of the scenario. The counts are aggregated per
+	 * log in parallel into grids of a fixed size, so memory usage does not grow with the number of queries.
+	 */
+	public void graphHeatmap(File folder) throws IOException {
+		PhaseWindows windows = PhaseWindows.of(folder);
+		long duration = windows.getTo(Phase.POST);
+
+		LatencyHeatmap heatmap;
+		try {
+			heatmap = Arrays.stream(Logs.listWorkerLogs(folder))
+					.parallel()
+					.map(file -> {
+						LatencyHeatmap partial = new LatencyHeatmap(duration);
+						try {
+							Logs.read(file, partial);
+						}
+						catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+						return partial;
+					})
+					.reduce(LatencyHeatmap::merge)
+					.orElseGet(() -> new LatencyHeatmap(duration));
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		BufferedImage image = heatmap.render(windows.getFrom(Phase.DURING), windows.getTo(Phase.DURING));
+		String name = folder.getName() + "-heatmap.png";
+		ImageIO.write(image, "png", new File(folder, name));
+		ImageIO.write(image, "png", new File(new File(folder.getParent(), "graphs"), name));
+	}
+
 	private void drawSplit(File folder) throws IOException {
 		BufferedImage image = new BufferedImage(
 				WIDTH,
@@ -57,59 +126,48 @@ public class Grapher {
 		graphics.setColor(Color.WHITE);
 		graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
 
-		File[] logFiles = folder.listFiles((dir, name) -> name.endsWith(".log"));
-		ArrayList<File> files = Lists.newArrayList(logFiles);
+		ArrayList<File> files = Lists.newArrayList(Logs.listWorkerLogs(folder));
+		File operationLog = new File(folder, Logs.OPERATION_LOG);
+		if (operationLog.exists()) {
+			files.add(operationLog);
+		}
 		Collections.sort(files);
 
-		AtomicReference<String> type = new AtomicReference<>();
-		for (File file : files) {
-			parse(file, line -> {
-				long x = getQueryStart(line);
-				if (x < SKIP_UNTIL) {
-					return true;
-				}
-				if (x > LIMIT + 1000) {
-					return false;
-				}
+		Columns columns;
+		try {
+			columns = files.parallelStream()
+					.map(this::aggregate)
+					.reduce(Columns::merge)
+					.orElseGet(Columns::new);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
 
-				long queryEnd = getQueryEnd(line);
-				int queryDuration = (int) (queryEnd - x);
-				String queryType = getWorkerType(line);
+		if (columns.operationStart >= 0) {
+			long x = columns.operationStart;
+			int queryDuration = (int) (columns.operationEnd - x);
+			graphics.setColor(new Color(0f, 0f, 0f, 0.2f));
+			graphics.fillRect(toX(x), 0, Math.min(WIDTH - toX(x), toX(queryDuration + SKIP_UNTIL)), toY(image.getHeight()) - PADDING + 1);
+		}
 
-				int y = queryDuration;
-				if (queryType.equals("Operation")) {
-					graphics.setColor(new Color(0f, 0f, 0f, 0.2f));
-					graphics.fillRect(toX(x), 0, Math.min(WIDTH - toX(x), toX(queryDuration + SKIP_UNTIL)), toY(image.getHeight()) - PADDING + 1);
-				}
+		for (Map.Entry<RecordType, Histogram[]> entry : columns.histograms.entrySet()) {
+			log.info("Drawing: {}", entry.getKey());
+			Color color = getColor(entry.getKey());
 
-				if (!queryType.equals(type.get())) {
-					type.set(queryType);
-					log.info("Drawing: {}", type.get());
-				}
+			for (int band = 0; band < BAND_PERCENTILES.length; band++) {
+				graphics.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), BAND_ALPHAS[band]));
 
-				switch (queryType) {
-					case "InsertWorker":
-						graphics.setColor(new Color(0, 255, 0, 80));
-						break;
-					case "DeleteWorker":
-						graphics.setColor(new Color(255, 0, 0, 80));
-						break;
-					case "UpdateWorker":
-						graphics.setColor(new Color(0, 0, 255, 80));
-						break;
-					case "SelectWorker":
-						graphics.setColor(new Color(255, 200, 0, 80));
-						break;
-					case "Operation":
-						graphics.setColor(new Color(0, 0, 0));
-						break;
-					default:
-						throw new IllegalArgumentException("Wrong argument: " + queryType);
-				}
+				Histogram[] histograms = entry.getValue();
+				for (int column = 0; column < histograms.length; column++) {
+					if (histograms[column] == null) {
+						continue;
+					}
 
-				graphics.drawLine(toX(x), toY(Math.max(0, image.getHeight() - y)) - PADDING, toX(x), toY(image.getHeight()) - PADDING);
-				return true;
-			});
+					int y = (int) Math.min(Integer.MAX_VALUE, histograms[column].getValueAtPercentile(BAND_PERCENTILES[band]));
+					graphics.drawLine(column, toY(Math.max(0, image.getHeight() - y)) - PADDING, column, toY(image.getHeight()) - PADDING);
+				}
+			}
 		}
 
 		graphics.setColor(Color.BLACK);
@@ -124,45 +182,113 @@ public class Grapher {
 		ImageIO.write(image, "png", new File(new File(folder.getParent(), "graphs"), folder.getName() + ".png"));
 	}
 
-	private int toX(long x) {
-		return (int) ((double) (x - SKIP_UNTIL) / 1000.0 * SCALE);
-	}
+	/**
+	 * Aggregates the durations of the queries in a single log into one histogram per type of record per column of the
+	 * image, so that the logs of a scenario can be aggregated in parallel and merged afterwards.
+	 */
+	private Columns aggregate(File file) {
+		Columns columns = new Columns();
+		try {
+			Logs.read(file, (queryType, start, end) -> {
+				long x = TimeUnit.MICROSECONDS.toMillis(start);
+				if (x < SKIP_UNTIL) {
+					return true;
+				}
+				if (x > LIMIT + 1000) {
+					return false;
+				}
 
-	private int toY(int y) {
-		return y;
+				long queryEnd = TimeUnit.MICROSECONDS.toMillis(end);
+				if (queryType == RecordType.OPERATION) {
+					columns.operationStart = x;
+					columns.operationEnd = queryEnd;
+					return true;
+				}
+
+				int column = toX(x);
+				if (column < 0 || column >= WIDTH) {
+					return true;
+				}
+
+				Histogram[] histograms = columns.histograms.computeIfAbsent(queryType, key -> new Histogram[WIDTH]);
+				if (histograms[column] == null) {
+					histograms[column] = new Histogram(2);
+				}
+				histograms[column].recordValue(Math.max(0, queryEnd - x));
+				return true;
+			});
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return columns;
 	}
-	
-	private void parse(File file, Parser parser) throws IOException {
-		try (RandomAccessFile accessor = new RandomAccessFile(file, "r")) {
-			boolean read = true;
-			do {
-				String line = accessor.readLine();
-				if (line == null || !parser.parse(line)) {
-					read = false;
+
+	private static class Columns {
+		private final Map<RecordType, Histogram[]> histograms = Maps.newEnumMap(RecordType.class);
+		private long operationStart = -1;
+		private long operationEnd = -1;
+
+		private Columns merge(Columns other) {
+			for (Map.Entry<RecordType, Histogram[]> entry : other.histograms.entrySet()) {
+				Histogram[] target = histograms.computeIfAbsent(entry.getKey(), key -> new Histogram[WIDTH]);
+				Histogram[] source = entry.getValue();
+				for (int column = 0; column < WIDTH; column++) {
+					if (source[column] == null) {
+						continue;
+					}
+					if (target[column] == null) {
+						target[column] = source[column];
+					}
+					else {
+						target[column].add(source[column]);
+					}
 				}
 			}
-			while (read);
+
+			if (other.operationStart >= 0) {
+				operationStart = other.operationStart;
+				operationEnd = other.operationEnd;
+			}
+			return this;
 		}
 	}
-	
-	private String getWorkerType(String line) {
-		return line.substring(0, line.indexOf('\t'));
-	}
-	
-	private long getQueryStart(String line) {
-		int first = line.indexOf('\t');
-		return Long.parseLong(line.substring(first + 1, line.indexOf('\t', first + 1)));
+
+	public static Color getColor(RecordType queryType) {
+		switch (queryType) {
+			case INSERT:
+				return new Color(0, 255, 0);
+			case DELETE:
+				return new Color(255, 0, 0);
+			case UPDATE:
+				return new Color(0, 0, 255);
+			case SELECT:
+				return new Color(255, 200, 0);
+			case TRANSACTION:
+				return new Color(160, 0, 255);
+			case TRANSACTION_COMMIT:
+				return new Color(0, 200, 200);
+			case TRANSACTION_ROLLBACK:
+				return new Color(120, 0, 0);
+			case OPERATION:
+				return new Color(0, 0, 0);
+			case LOCK_TIMEOUT:
+			case DEADLOCK:
+			case CONNECTION_LOST:
+			case SERIALIZATION_FAILURE:
+			case ERROR:
+				return new Color(255, 0, 255);
+			default:
+				throw new IllegalArgumentException("Wrong argument: " + queryType);
+		}
 	}
-	
-	private long getQueryEnd(String line) {
-		int first = line.indexOf('\t');
-		int second = line.indexOf('\t', first + 1);
-		return Long.parseLong(line.substring(second + 1, line.indexOf('\t', second + 1)));
+
+	private int toX(long x) {
+		return (int) ((double) (x - SKIP_UNTIL) / 1000.0 * SCALE);
 	}
-	
-	@FunctionalInterface
-	private interface Parser {
-		boolean parse(String line);
+
+	private int toY(int y) {
+		return y;
 	}
-	
+
 }
@@ -0,0 +1,149 @@
+package io.quantumdb.nemesis;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import io.quantumdb.nemesis.logs.RecordHandler;
+import io.quantumdb.nemesis.profiler.RecordType;
+
+/**
+ * Counts queries in a fixed grid of time columns and logarithmically scaled latency rows, from 100 microseconds up to
+ * 100 seconds. The memory used by the grid does not depend on the number of queries, and grids built from different
+ * logs can be merged by adding up their counts.
+ */
+class LatencyHeatmap implements RecordHandler {
+
+	static final int COLUMNS = 1200;
+	static final int ROWS_PER_DECADE = 20;
+	static final int DECADES = 6;
+	static final int ROWS = DECADES * ROWS_PER_DECADE;
+
+	private static final double MIN_LATENCY = 100;
+
+	private static final int ROW_HEIGHT = 2;
+	private static final int AXIS_WIDTH = 50;
+	private static final int AXIS_HEIGHT = 15;
+
+	private final long duration;
+	private final long[] counts = new long[COLUMNS * ROWS];
+
+	/**
+	 * @param duration The time in microseconds covered by the heatmap, starting at the start of the Session.
+	 */
+	LatencyHeatmap(long duration) {
+		this.duration = Math.max(1, duration);
+	}
+
+	@Override
+	public boolean handle(RecordType type, long start, long end) {
+		if (type == RecordType.OPERATION || type.isError() || start < 0 || start >= duration) {
+			return true;
+		}
+
+		int column = (int) (start * COLUMNS / duration);
+		counts[column * ROWS + toRow(end - start)]++;
+		return true;
+	}
+
+	/**
+	 * @return The number of queries counted in the specified cell, where row 0 holds the lowest latencies.
+	 */
+	long getCount(int column, int row) {
+		return counts[column * ROWS + row];
+	}
+
+	LatencyHeatmap merge(LatencyHeatmap other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Renders the heatmap, with the color of every cell scaled logarithmically to the highest count of all cells, and
+	 * the window of the operation marked by two vertical lines.
+	 */
+	BufferedImage render(long operationStart, long operationEnd) {
+		BufferedImage image = new BufferedImage(AXIS_WIDTH + COLUMNS, ROWS * ROW_HEIGHT + AXIS_HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+
+		Graphics graphics = image.getGraphics();
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+
+		long max = 0;
+		for (long count : counts) {
+			max = Math.max(max, count);
+		}
+
+		if (max > 0) {
+			double scale = Math.log1p(max);
+			for (int column = 0; column < COLUMNS; column++) {
+				for (int row = 0; row < ROWS; row++) {
+					long count = counts[column * ROWS + row];
+					if (count == 0) {
+						continue;
+					}
+
+					graphics.setColor(toColor(Math.log1p(count) / scale));
+					int y = (ROWS - row - 1) * ROW_HEIGHT;
+					graphics.fillRect(AXIS_WIDTH + column, y, 1, ROW_HEIGHT);
+				}
+			}
+		}
+
+		graphics.setColor(new Color(0, 0, 255));
+		for (long timestamp : new long[] { operationStart, operationEnd }) {
+			if (timestamp >= 0 && timestamp < duration) {
+				int x = AXIS_WIDTH + (int) (timestamp * COLUMNS / duration);
+				graphics.drawLine(x, 0, x, ROWS * ROW_HEIGHT);
+			}
+		}
+
+		graphics.setColor(Color.BLACK);
+		graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 10));
+		graphics.drawLine(AXIS_WIDTH - 1, 0, AXIS_WIDTH - 1, ROWS * ROW_HEIGHT);
+		graphics.drawLine(AXIS_WIDTH - 1, ROWS * ROW_HEIGHT, image.getWidth(), ROWS * ROW_HEIGHT);
+
+		String[] labels = { "0.1ms", "1ms", "10ms", "100ms", "1s", "10s", "100s" };
+		for (int decade = 0; decade <= DECADES; decade++) {
+			int y = (ROWS - decade * ROWS_PER_DECADE) * ROW_HEIGHT;
+			graphics.drawLine(AXIS_WIDTH - 4, y, AXIS_WIDTH - 1, y);
+			graphics.drawString(labels[decade], 2, Math.max(10, Math.min(y + 4, ROWS * ROW_HEIGHT)));
+		}
+
+		// One tick every 10 seconds.
+		long tick = 10_000_000;
+		for (long timestamp = 0; timestamp < duration; timestamp += tick) {
+			int x = AXIS_WIDTH + (int) (timestamp * COLUMNS / duration);
+			graphics.drawLine(x, ROWS * ROW_HEIGHT, x, ROWS * ROW_HEIGHT + 4);
+		}
+
+		return image;
+	}
+
+	private static int toRow(long latency) {
+		if (latency <= MIN_LATENCY) {
+			return 0;
+		}
+		int row = (int) (Math.log10(latency / MIN_LATENCY) * ROWS_PER_DECADE);
+		return Math.min(ROWS - 1, row);
+	}
+
+	/**
+	 * Maps an intensity between 0 and 1 onto a gradient from light yellow, via orange and red, to black.
+	 */
+	private static Color toColor(double intensity) {
+		float[][] stops = { { 255, 255, 200 }, { 255, 160, 0 }, { 200, 0, 0 }, { 0, 0, 0 } };
+		double position = Math.max(0, Math.min(1, intensity)) * (stops.length - 1);
+		int index = Math.min(stops.length - 2, (int) position);
+		double fraction = position - index;
+
+		int[] rgb = new int[3];
+		for (int i = 0; i < 3; i++) {
+			rgb[i] = (int) Math.round(stops[index][i] + (stops[index + 1][i] - stops[index][i]) * fraction);
+		}
+		return new Color(rgb[0], rgb[1], rgb[2]);
+	}
+
+}
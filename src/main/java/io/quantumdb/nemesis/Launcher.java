@@ -3,23 +3,49 @@ package io.quantumdb.nemesis;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.List;
 
 import io.quantumdb.nemesis.operations.DefaultOperations;
 import io.quantumdb.nemesis.operations.NamedOperation;
 import io.quantumdb.nemesis.operations.QuantumDbOperations;
 import io.quantumdb.nemesis.profiler.DatabaseStructure;
+import io.quantumdb.nemesis.profiler.KeyDistribution;
 import io.quantumdb.nemesis.profiler.Profiler;
 import io.quantumdb.nemesis.profiler.ProfilerConfig;
+import io.quantumdb.nemesis.profiler.TransactionType;
+import io.quantumdb.nemesis.profiler.WorkerExecution;
 import io.quantumdb.nemesis.structure.Database;
 import io.quantumdb.nemesis.structure.Database.Type;
 import io.quantumdb.nemesis.structure.DatabaseCredentials;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Asks which database to profile and how, on standard input. Settings which were added after the original questions
+ * are read from system properties instead, so that input scripted for those questions keeps working:
+ *
+ * <ul>
+ * <li>nemesis.deferIndexes: whether indexes are built after the rows have been loaded when preparing the database,
+ * false by default.</li>
+ * <li>nemesis.readRate, nemesis.insertRate, nemesis.deleteRate and nemesis.updateRate: the number of requests per
+ * second per worker of that type, or 0 (the default) to run the workers as a closed loop.</li>
+ * <li>nemesis.readKeys, nemesis.deleteKeys and nemesis.updateKeys: the KeyDistribution of the rows targeted by the
+ * workers of that type, UNIFORM by default.</li>
+ * <li>nemesis.transactionWorkers: the number of TRANSACTION workers, 0 by default. Their rate, key distribution,
+ * TransactionType and think time between statements (in milliseconds) are set with nemesis.transactionRate,
+ * nemesis.transactionKeys, nemesis.transactionType (READ_MODIFY_WRITE by default) and
+ * nemesis.transactionThinkTime.</li>
+ * <li>nemesis.execution: the WorkerExecution on which the workers run, PLATFORM_THREADS by default.
+ * VIRTUAL_THREADS requires Java 24 or newer.</li>
+ * <li>nemesis.restoreSnapshots: whether the dataset is restored from a snapshot after every operation, false by
+ * default. On MySQL every restore copies the entire table again.</li>
+ * </ul>
+ */
 @Slf4j
 public class Launcher {
 
+	private static final String PROPERTY_PREFIX = "nemesis.";
 	private static final int ROWS = 50_000_000;
 	private static final int STARTUP_TIMEOUT = 60_000;
 	private static final int TEARDOWN_TIMEOUT = 60_000;
@@ -139,6 +165,7 @@ public class Launcher {
 				switch (option) {
 					case 1:
 						DatabaseStructure preparer = new DatabaseStructure(type, credentials);
+						preparer.setDeferIndexes(Boolean.getBoolean(PROPERTY_PREFIX + "deferIndexes"));
 						preparer.prepareStructureAndRows(ROWS);
 						break;
 					case 2:
@@ -148,9 +175,27 @@ public class Launcher {
 						int updates = askWorkerQuantity("UPDATE", reader);
 
 						ProfilerConfig config = new ProfilerConfig(readers, updates, inserts, deletes);
+						config.setReadRate(getNonNegative("readRate", 0));
+						config.setInsertRate(getNonNegative("insertRate", 0));
+						config.setDeleteRate(getNonNegative("deleteRate", 0));
+						config.setUpdateRate(getNonNegative("updateRate", 0));
+						config.setTransactionRate(getNonNegative("transactionRate", 0));
+						config.setReadKeys(getEnum("readKeys", KeyDistribution.UNIFORM));
+						config.setDeleteKeys(getEnum("deleteKeys", KeyDistribution.UNIFORM));
+						config.setUpdateKeys(getEnum("updateKeys", KeyDistribution.UNIFORM));
+						config.setTransactionKeys(getEnum("transactionKeys", KeyDistribution.UNIFORM));
+						config.setTransactionWorkers(getNonNegative("transactionWorkers", 0));
+						config.setTransactionType(getEnum("transactionType", TransactionType.READ_MODIFY_WRITE));
+						config.setTransactionThinkTime(getNonNegative("transactionThinkTime", 0));
+
+						config.setExecution(getEnum("execution", WorkerExecution.PLATFORM_THREADS));
+						config.setRestoreSnapshots(Boolean.getBoolean(PROPERTY_PREFIX + "restoreSnapshots"));
+
 						List<NamedOperation> operations = new DefaultOperations().all();
+						config.setStrategy(ProfilerConfig.NAIVE_STRATEGY);
 						if (useQuantumDb) {
 							operations = new QuantumDbOperations().all();
+							config.setStrategy(ProfilerConfig.QUANTUMDB_STRATEGY);
 						}
 
 						Profiler profiler = new Profiler(config, type, credentials, operations, STARTUP_TIMEOUT, TEARDOWN_TIMEOUT);
@@ -172,11 +217,57 @@ public class Launcher {
 		}
 	}
 
-	@SneakyThrows
 	private static int askWorkerQuantity(String type, BufferedReader reader) {
+		return askNonNegative(String.format("How many %s workers: ", type), reader);
+	}
+
+	/**
+	 * @return The value of the system property with the specified name (prefixed with "nemesis."), or the default
+	 * value if it is not set.
+	 */
+	private static int getNonNegative(String name, int defaultValue) {
+		String value = System.getProperty(PROPERTY_PREFIX + name);
+		if (value == null) {
+			return defaultValue;
+		}
+
+		try {
+			int result = Integer.parseInt(value.trim());
+			if (result >= 0) {
+				return result;
+			}
+		}
+		catch (NumberFormatException e) {
+			// Reported below...
+		}
+		throw new IllegalArgumentException("System property: " + PROPERTY_PREFIX + name
+				+ " must be a number in range [0..], but was: " + value);
+	}
+
+	/**
+	 * @return The constant named by the system property with the specified name (prefixed with "nemesis."), or the
+	 * default value if it is not set.
+	 */
+	private static <E extends Enum<E>> E getEnum(String name, E defaultValue) {
+		String value = System.getProperty(PROPERTY_PREFIX + name);
+		if (value == null) {
+			return defaultValue;
+		}
+
+		try {
+			return Enum.valueOf(defaultValue.getDeclaringClass(), value.trim().toUpperCase());
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("System property: " + PROPERTY_PREFIX + name + " must be one of: "
+					+ Arrays.toString(defaultValue.getDeclaringClass().getEnumConstants()) + ", but was: " + value);
+		}
+	}
+
+	@SneakyThrows
+	private static int askNonNegative(String question, BufferedReader reader) {
 		while (true) {
 			try {
-				int option = Integer.parseInt(ask(String.format("How many %s workers: ", type), reader));
+				int option = Integer.parseInt(ask(question, reader));
 				if (option >= 0) {
 					return option;
 				}
@@ -1,106 +1,213 @@
 package io.quantumdb.nemesis;
 
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.util.concurrent.atomic.AtomicLong;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-import com.google.common.collect.Range;
+import com.google.common.collect.Lists;
+import io.quantumdb.nemesis.analysis.Phase;
+import io.quantumdb.nemesis.analysis.PhaseWindows;
+import io.quantumdb.nemesis.logs.LogChunk;
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.logs.RecordHandler;
+import io.quantumdb.nemesis.logs.TextLog;
+import io.quantumdb.nemesis.logs.TextLogBuffer;
+import io.quantumdb.nemesis.profiler.RecordType;
 import lombok.extern.slf4j.Slf4j;
 
-
+/**
+ * Splits the worker logs of every scenario into the records before, during, and after the operation, as determined
+ * by the PhaseWindows of the scenario. For computing statistics the PhaseAnalyzer is preferred, since it needs only a
+ * single pass over the logs and writes no intermediate files. All worker logs of all scenarios are processed in
+ * parallel on a fork-join pool. Every log is additionally divided into chunks which are parsed in parallel, and
+ * whose output is written to temporary files that are concatenated in order, so memory usage does not grow with the
+ * size of the logs.
+ */
 @Slf4j
 public class Splitter {
 
+	private static final int CHUNK_SIZE = 16 * 1024 * 1024;
+	private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+	private static final int FLUSH_SIZE = 256 * 1024;
+
 	public static void main(String[] args) throws IOException {
 		File folder = new File(args[0]);
 		File[] scenarios = folder.listFiles(file -> file.isDirectory() && !file.getName().startsWith(".") && !file.getName().startsWith("_") && !file.getName().equals("graphs"));
+
+		List<SplitFile> tasks = Lists.newArrayList();
 		for (File scenario : scenarios) {
-			AtomicLong start = new AtomicLong();
-			AtomicLong end = new AtomicLong();
+			PhaseWindows windows = PhaseWindows.of(scenario);
+			for (File file : Logs.listWorkerLogs(scenario)) {
+				tasks.add(new SplitFile(file, windows));
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
 
-			File operation = new File(scenario, "OPERATION.log");
-			parse(operation, line -> {
-				start.set(getQueryStart(line));
-				end.set(getQueryEnd(line));
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
 			});
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
 
-			long middle = (end.get() - start.get()) / 2 + start.get();
-			Range<Long> preRange = Range.closed(1000L, 51000L);
-			Range<Long> duringRange = Range.closed(middle - 25000L, middle + 25000L);
-			Range<Long> postRange = Range.closed(end.get() + 1000L, end.get() + 51000L);
+	/**
+	 * The records of a chunk of a worker log, divided over the phases. Records are formatted into a small buffer per
+	 * phase, which is flushed to a temporary file of its own whenever it fills up.
+	 */
+	private static class Split implements RecordHandler, Closeable {
+		private final PhaseWindows windows;
+		private final TextLogBuffer[] buffers = new TextLogBuffer[Phase.values().length];
+		private final OutputStream[] outputs = new OutputStream[Phase.values().length];
 
-			File[] logFiles = scenario.listFiles((dir, name) -> name.endsWith(".log") && !name.contains("OPERATION"));
-			for (File file : logFiles) {
-				log.info("Processing: {}", file.getAbsoluteFile());
+		private Split(File[] files, PhaseWindows windows) throws IOException {
+			this.windows = windows;
+			for (int i = 0; i < buffers.length; i++) {
+				buffers[i] = new TextLogBuffer();
+				outputs[i] = new FileOutputStream(files[i]);
+			}
+		}
 
-				File pre = new File(file.getAbsolutePath() + ".pre");
-				File during = new File(file.getAbsolutePath() + ".during");
-				File post = new File(file.getAbsolutePath() + ".post");
+		@Override
+		public boolean handle(RecordType type, long start, long end) throws IOException {
+			int phase = windows.indexOf(start);
+			if (phase >= 0) {
+				buffers[phase].append(type, start, end);
+				if (buffers[phase].size() >= FLUSH_SIZE) {
+					flush(phase);
+				}
+			}
+			return true;
+		}
 
-				FileWriter preWriter = new FileWriter(pre);
-				FileWriter duringWriter = new FileWriter(during);
-				FileWriter postWriter = new FileWriter(post);
+		private void flush(int phase) throws IOException {
+			buffers[phase].writeTo(outputs[phase]);
+			buffers[phase].clear();
+		}
 
-				parse(file, line -> {
-					long queryStart = getQueryStart(line);
-					if (preRange.contains(queryStart)) {
-						preWriter.write(line + "\n");
-					}
-					else if (duringRange.contains(queryStart)) {
-						duringWriter.write(line + "\n");
+		@Override
+		public void close() throws IOException {
+			IOException failure = null;
+			for (int i = 0; i < outputs.length; i++) {
+				try {
+					try {
+						flush(i);
 					}
-					else if (postRange.contains(queryStart)) {
-						postWriter.write(line + "\n");
+					finally {
+						outputs[i].close();
 					}
-				});
-
-				preWriter.flush();
-				duringWriter.flush();
-				postWriter.flush();
-
-				preWriter.close();
-				duringWriter.close();
-				postWriter.close();
+				}
+				catch (IOException e) {
+					failure = e;
+				}
+			}
+			if (failure != null) {
+				throw failure;
 			}
 		}
 	}
-	
-	private static void parse(File file, Parser parser) throws IOException {
-		try (RandomAccessFile accessor = new RandomAccessFile(file, "r")) {
-			boolean read = true;
-			do {
-				String line = accessor.readLine();
-				if (line == null) {
-					read = false;
+
+	/**
+	 * Splits a single worker log, which is divided into chunks that are split in parallel. Every chunk writes its
+	 * records to a temporary file per phase, which are concatenated in order once all chunks have been split.
+	 */
+	private static class SplitFile extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final File file;
+		private final PhaseWindows windows;
+
+		private SplitFile(File file, PhaseWindows windows) {
+			this.file = file;
+			this.windows = windows;
+		}
+
+		@Override
+		protected void compute() {
+			log.info("Processing: {}", file.getAbsoluteFile());
+
+			File textLog = new File(file.getParentFile(), Logs.getBaseName(file) + TextLog.EXTENSION);
+			List<SplitChunk> chunks = Lists.newArrayList();
+
+			try {
+				for (LogChunk chunk : Logs.split(file, CHUNK_SIZE)) {
+					chunks.add(new SplitChunk(chunk, getPartFiles(textLog, chunks.size()), windows));
 				}
-				else {
-					parser.parse(line);
+
+				invokeAll(chunks);
+				for (Phase phase : Phase.values()) {
+					write(new File(textLog.getAbsolutePath() + "." + phase.getLabel()), chunks, phase);
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			finally {
+				for (SplitChunk chunk : chunks) {
+					for (File part : chunk.files) {
+						part.delete();
+					}
 				}
 			}
-			while (read);
+		}
+
+		private void write(File output, List<SplitChunk> chunks, Phase phase) throws IOException {
+			try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(output), OUTPUT_BUFFER_SIZE)) {
+				for (SplitChunk chunk : chunks) {
+					Files.copy(chunk.files[phase.ordinal()].toPath(), stream);
+				}
+			}
+		}
+
+		private static File[] getPartFiles(File textLog, int chunk) {
+			File[] files = new File[Phase.values().length];
+			for (Phase phase : Phase.values()) {
+				files[phase.ordinal()] = new File(textLog.getAbsolutePath() + "." + phase.getLabel() + "." + chunk + ".part");
+			}
+			return files;
 		}
 	}
-	
-	private static String getWorkerType(String line) {
-		return line.substring(0, line.indexOf('\t'));
-	}
-	
-	private static long getQueryStart(String line) {
-		int first = line.indexOf('\t');
-		return Long.parseLong(line.substring(first + 1, line.indexOf('\t', first + 1)));
-	}
-	
-	private static long getQueryEnd(String line) {
-		int first = line.indexOf('\t');
-		int second = line.indexOf('\t', first + 1);
-		return Long.parseLong(line.substring(second + 1, line.indexOf('\t', second + 1)));
-	}
-	
-	@FunctionalInterface
-	private interface Parser {
-		void parse(String line) throws IOException;
+
+	private static class SplitChunk extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final LogChunk chunk;
+		private final File[] files;
+		private final PhaseWindows windows;
+
+		private SplitChunk(LogChunk chunk, File[] files, PhaseWindows windows) {
+			this.chunk = chunk;
+			this.files = files;
+			this.windows = windows;
+		}
+
+		@Override
+		protected void compute() {
+			try (Split split = new Split(files, windows)) {
+				chunk.read(split);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
 	}
-	
+
 }
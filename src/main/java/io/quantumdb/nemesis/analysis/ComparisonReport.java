@@ -0,0 +1,311 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.profiler.RecordType;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Compares the scenarios recorded with the naive (DefaultOperations) and the QuantumDB (QuantumDbOperations)
+ * strategy, and writes a self-contained HTML report which lines up both strategies per operation. Usage:
+ *
+ * <pre>
+ *     ComparisonReport &lt;naive folder&gt; &lt;quantumdb folder&gt; [output file]
+ * </pre>
+ *
+ * Both folders are expected to contain one sub folder per operation, as written by the Profiler. The Profiler writes
+ * the logs of every strategy into a folder of its own, so for a PostgreSQL run the folders are
+ * logs/POSTGRESQL/naive and logs/POSTGRESQL/quantumdb.
+ */
+@Slf4j
+public class ComparisonReport {
+
+	private static final String DEFAULT_OUTPUT = "comparison.html";
+
+	private static final String NAIVE_COLOR = "#999999";
+	private static final String QUANTUMDB_COLOR = "#1f77b4";
+
+	private static final int CHART_WIDTH = 640;
+	private static final int CHART_ROW_HEIGHT = 14;
+	private static final int CHART_LABEL_WIDTH = 160;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: ComparisonReport <naive folder> <quantumdb folder> [output file]");
+			System.err.println("For example: ComparisonReport logs/POSTGRESQL/naive logs/POSTGRESQL/quantumdb");
+			return;
+		}
+
+		File output = new File(args.length > 2 ? args[2] : DEFAULT_OUTPUT);
+		ComparisonReport report = new ComparisonReport(load(new File(args[0])), load(new File(args[1])));
+		report.write(output);
+		log.info("Written comparison report to: {}", output.getAbsolutePath());
+	}
+
+	/**
+	 * @return The statistics of every scenario in the specified folder, by name of the operation.
+	 */
+	public static Map<String, PhaseStatistics> load(File folder) throws IOException {
+		Map<String, PhaseStatistics> scenarios = Maps.newTreeMap();
+		File[] children = folder.listFiles(File::isDirectory);
+		if (children == null) {
+			throw new IOException("Not a folder: " + folder);
+		}
+
+		for (File scenario : children) {
+			if (!new File(scenario, Logs.OPERATION_LOG).exists()) {
+				continue;
+			}
+			log.info("Analyzing: {}", scenario.getAbsolutePath());
+			scenarios.put(scenario.getName(), PhaseStatistics.of(scenario));
+		}
+		return scenarios;
+	}
+
+	private final Map<String, PhaseStatistics> naive;
+	private final Map<String, PhaseStatistics> quantumDb;
+
+	public ComparisonReport(Map<String, PhaseStatistics> naive, Map<String, PhaseStatistics> quantumDb) {
+		this.naive = naive;
+		this.quantumDb = quantumDb;
+	}
+
+	public void write(File file) throws IOException {
+		Set<String> operations = Sets.newTreeSet(naive.keySet());
+		operations.addAll(quantumDb.keySet());
+
+		try (Writer writer = new FileWriter(file)) {
+			writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n");
+			writer.write("<title>Nemesis: naive vs. QuantumDB</title>\n");
+			writer.write("<style>\n"
+					+ "body { font-family: sans-serif; margin: 2em; }\n"
+					+ "table { border-collapse: collapse; margin-bottom: 1em; }\n"
+					+ "th, td { border: 1px solid #ccc; padding: 2px 8px; text-align: right; }\n"
+					+ "th:first-child, td:first-child { text-align: left; }\n"
+					+ ".naive { color: " + NAIVE_COLOR + "; }\n"
+					+ ".quantumdb { color: " + QUANTUMDB_COLOR + "; }\n"
+					+ "</style>\n</head>\n<body>\n");
+			writer.write("<h1>Naive vs. QuantumDB</h1>\n");
+
+			writeSummary(writer, operations);
+			for (String operation : operations) {
+				writeOperation(writer, operation, naive.get(operation), quantumDb.get(operation));
+			}
+
+			writer.write("</body>\n</html>\n");
+		}
+	}
+
+	private void writeSummary(Writer writer, Set<String> operations) throws IOException {
+		writer.write("<h2>Summary</h2>\n<table>\n<tr><th>Operation</th>"
+				+ "<th>Duration (s)<br><span class=\"naive\">naive</span></th>"
+				+ "<th>Duration (s)<br><span class=\"quantumdb\">QuantumDB</span></th>"
+				+ "<th>Worst p99 (ms)<br><span class=\"naive\">naive</span></th>"
+				+ "<th>Worst p99 (ms)<br><span class=\"quantumdb\">QuantumDB</span></th>"
+				+ "<th>Errors<br><span class=\"naive\">naive</span></th>"
+				+ "<th>Errors<br><span class=\"quantumdb\">QuantumDB</span></th></tr>\n");
+
+		for (String operation : operations) {
+			PhaseStatistics left = naive.get(operation);
+			PhaseStatistics right = quantumDb.get(operation);
+
+			writer.write("<tr><td><a href=\"#" + escape(operation) + "\">" + escape(operation) + "</a></td>");
+			writer.write(cell(getOperationDuration(left)) + cell(getOperationDuration(right)));
+			writer.write(cell(getWorstPercentile(left, 99.0)) + cell(getWorstPercentile(right, 99.0)));
+			writer.write(cell(getErrors(left, Phase.DURING)) + cell(getErrors(right, Phase.DURING)));
+			writer.write("</tr>\n");
+		}
+		writer.write("</table>\n");
+	}
+
+	private void writeOperation(Writer writer, String operation, PhaseStatistics left, PhaseStatistics right)
+			throws IOException {
+
+		writer.write("<h2 id=\"" + escape(operation) + "\">" + escape(operation) + "</h2>\n");
+		if (left == null || right == null) {
+			writer.write("<p>Only recorded with the " + (left == null ? "QuantumDB" : "naive") + " strategy.</p>\n");
+		}
+
+		writer.write("<p>Operation duration: <span class=\"naive\">" + format(getOperationDuration(left))
+				+ " s</span> vs. <span class=\"quantumdb\">" + format(getOperationDuration(right)) + " s</span></p>\n");
+
+		List<RecordType> types = getWorkerTypes(left, right);
+		writer.write("<table>\n<tr><th>Worker</th><th>Strategy</th><th>p50 (ms)</th><th>p90 (ms)</th>"
+				+ "<th>p99 (ms)</th><th>Max (ms)</th><th>Throughput before (/s)</th><th>Throughput during (/s)</th>"
+				+ "<th>Throughput loss</th></tr>\n");
+
+		for (RecordType type : types) {
+			writeRow(writer, type, "naive", left);
+			writeRow(writer, type, "quantumdb", right);
+		}
+		writer.write("<tr><td>Errors</td><td class=\"naive\">naive</td><td colspan=\"7\">"
+				+ format(getErrors(left, Phase.DURING)) + "</td></tr>\n");
+		writer.write("<tr><td>Errors</td><td class=\"quantumdb\">QuantumDB</td><td colspan=\"7\">"
+				+ format(getErrors(right, Phase.DURING)) + "</td></tr>\n");
+		writer.write("</table>\n");
+
+		writeChart(writer, types, left, right);
+	}
+
+	private void writeRow(Writer writer, RecordType type, String strategy, PhaseStatistics statistics)
+			throws IOException {
+
+		Histogram histogram = statistics == null ? null : statistics.getHistogram(Phase.DURING, type);
+		writer.write("<tr><td>" + escape(type.getLabel()) + "</td><td class=\"" + strategy + "\">"
+				+ (strategy.equals("naive") ? "naive" : "QuantumDB") + "</td>");
+
+		writer.write(cell(getPercentile(histogram, 50.0)) + cell(getPercentile(histogram, 90.0))
+				+ cell(getPercentile(histogram, 99.0)) + cell(getPercentile(histogram, 100.0)));
+
+		double before = statistics == null ? Double.NaN : statistics.getThroughput(Phase.PRE, type);
+		double during = statistics == null ? Double.NaN : statistics.getThroughput(Phase.DURING, type);
+		double loss = before > 0 ? Math.max(0, 1 - during / before) : Double.NaN;
+		writer.write(cell(before) + cell(during));
+		writer.write("<td>" + (Double.isNaN(loss) ? "-" : String.format("%.1f%%", loss * 100)) + "</td></tr>\n");
+	}
+
+	/**
+	 * Draws a horizontal bar chart of the p99 latency during the operation per type of worker and per strategy.
+	 */
+	private void writeChart(Writer writer, List<RecordType> types, PhaseStatistics left, PhaseStatistics right)
+			throws IOException {
+
+		double max = 0;
+		for (RecordType type : types) {
+			max = Math.max(max, zeroIfNaN(getPercentile(left == null ? null : left.getHistogram(Phase.DURING, type), 99.0)));
+			max = Math.max(max, zeroIfNaN(getPercentile(right == null ? null : right.getHistogram(Phase.DURING, type), 99.0)));
+		}
+		if (max == 0) {
+			return;
+		}
+
+		int barWidth = CHART_WIDTH - CHART_LABEL_WIDTH - 80;
+		int height = types.size() * CHART_ROW_HEIGHT * 3 + 20;
+		writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + CHART_WIDTH + "\" height=\"" + height
+				+ "\" font-size=\"11\">\n");
+		writer.write("<text x=\"0\" y=\"12\">p99 latency during operation (ms)</text>\n");
+
+		int y = 20;
+		for (RecordType type : types) {
+			writer.write("<text x=\"0\" y=\"" + (y + CHART_ROW_HEIGHT + 4) + "\">" + escape(type.getLabel())
+					+ "</text>\n");
+
+			for (PhaseStatistics statistics : Lists.newArrayList(left, right)) {
+				String color = statistics == left ? NAIVE_COLOR : QUANTUMDB_COLOR;
+				double value = zeroIfNaN(getPercentile(statistics == null ? null
+						: statistics.getHistogram(Phase.DURING, type), 99.0));
+
+				int width = (int) Math.round(value / max * barWidth);
+				writer.write("<rect x=\"" + CHART_LABEL_WIDTH + "\" y=\"" + y + "\" width=\"" + width
+						+ "\" height=\"" + (CHART_ROW_HEIGHT - 2) + "\" fill=\"" + color + "\"/>\n");
+				writer.write("<text x=\"" + (CHART_LABEL_WIDTH + width + 4) + "\" y=\"" + (y + CHART_ROW_HEIGHT - 3)
+						+ "\">" + format(value) + "</text>\n");
+				y += CHART_ROW_HEIGHT;
+			}
+			y += CHART_ROW_HEIGHT;
+		}
+		writer.write("</svg>\n");
+	}
+
+	/**
+	 * @return The types of workers (excluding errors) which were recorded by either strategy.
+	 */
+	private static List<RecordType> getWorkerTypes(PhaseStatistics left, PhaseStatistics right) {
+		Set<RecordType> types = Sets.newTreeSet();
+		for (PhaseStatistics statistics : Lists.newArrayList(left, right)) {
+			if (statistics == null) {
+				continue;
+			}
+			for (RecordType type : RecordType.values()) {
+				if (!type.isError() && type != RecordType.OPERATION
+						&& (statistics.getHistogram(Phase.PRE, type) != null
+						|| statistics.getHistogram(Phase.DURING, type) != null)) {
+					types.add(type);
+				}
+			}
+		}
+		return Lists.newArrayList(types);
+	}
+
+	private static double getOperationDuration(PhaseStatistics statistics) {
+		if (statistics == null) {
+			return Double.NaN;
+		}
+		return statistics.getWindows().getDuration(Phase.DURING) / (double) TimeUnit.SECONDS.toMicros(1);
+	}
+
+	private static double getWorstPercentile(PhaseStatistics statistics, double percentile) {
+		if (statistics == null) {
+			return Double.NaN;
+		}
+
+		double worst = 0;
+		for (RecordType type : RecordType.values()) {
+			if (type.isError()) {
+				continue;
+			}
+			worst = Math.max(worst, zeroIfNaN(getPercentile(statistics.getHistogram(Phase.DURING, type), percentile)));
+		}
+		return worst;
+	}
+
+	private static double getErrors(PhaseStatistics statistics, Phase phase) {
+		if (statistics == null) {
+			return Double.NaN;
+		}
+
+		long errors = 0;
+		for (RecordType type : RecordType.values()) {
+			Histogram histogram = statistics.getHistogram(phase, type);
+			if (type.isError() && histogram != null) {
+				errors += histogram.getTotalCount();
+			}
+		}
+		return errors;
+	}
+
+	/**
+	 * @return The specified percentile of the histogram in milliseconds, or NaN if there is no histogram.
+	 */
+	private static double getPercentile(Histogram histogram, double percentile) {
+		if (histogram == null) {
+			return Double.NaN;
+		}
+		return histogram.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	private static double zeroIfNaN(double value) {
+		return Double.isNaN(value) ? 0 : value;
+	}
+
+	private static String cell(double value) {
+		return "<td>" + format(value) + "</td>";
+	}
+
+	private static String format(double value) {
+		if (Double.isNaN(value)) {
+			return "-";
+		}
+		if (value == Math.rint(value)) {
+			return String.format("%.0f", value);
+		}
+		return String.format("%.2f", value);
+	}
+
+	private static String escape(String value) {
+		return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+}
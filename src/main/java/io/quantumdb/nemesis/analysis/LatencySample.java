@@ -0,0 +1,97 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.logs.RecordHandler;
+import io.quantumdb.nemesis.profiler.RecordType;
+
+/**
+ * Keeps a uniform random sample (reservoir) of bounded size of the request durations per phase and per type of
+ * record in a scenario. Unlike histograms, samples preserve individual observations, which resampling methods and
+ * rank based tests require.
+ */
+public class LatencySample implements RecordHandler {
+
+	private final PhaseWindows windows;
+	private final int size;
+	private final Random random;
+
+	private final long[][][] samples = new long[Phase.values().length][RecordType.values().length][];
+	private final long[][] seen = new long[Phase.values().length][RecordType.values().length];
+
+	/**
+	 * @param windows The phase windows of the scenario.
+	 * @param size The maximum number of durations to keep per phase and type of record.
+	 * @param seed The seed of the random generator, so that analyses can be reproduced.
+	 */
+	public LatencySample(PhaseWindows windows, int size, long seed) {
+		this.windows = windows;
+		this.size = size;
+		this.random = new Random(seed);
+	}
+
+	public static LatencySample of(File scenario, int size, long seed) throws IOException {
+		LatencySample sample = new LatencySample(PhaseWindows.of(scenario), size, seed);
+		for (File file : Logs.listWorkerLogs(scenario)) {
+			Logs.read(file, sample);
+		}
+		return sample;
+	}
+
+	@Override
+	public boolean handle(RecordType type, long start, long end) {
+		if (type.isError() || type == RecordType.OPERATION) {
+			return true;
+		}
+
+		int phase = windows.indexOf(start);
+		if (phase < 0) {
+			return true;
+		}
+
+		long[] values = samples[phase][type.ordinal()];
+		if (values == null) {
+			values = new long[size];
+			samples[phase][type.ordinal()] = values;
+		}
+
+		long index = seen[phase][type.ordinal()]++;
+		if (index < size) {
+			values[(int) index] = end - start;
+		}
+		else {
+			long replace = (long) (random.nextDouble() * (index + 1));
+			if (replace < size) {
+				values[(int) replace] = end - start;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The sampled durations in microseconds, sorted in ascending order, or an empty array if no requests of
+	 * the specified type were observed during the specified phase.
+	 */
+	public long[] getSortedDurations(Phase phase, RecordType type) {
+		long[] values = samples[phase.ordinal()][type.ordinal()];
+		if (values == null) {
+			return new long[0];
+		}
+
+		long[] result = Arrays.copyOf(values, (int) Math.min(size, seen[phase.ordinal()][type.ordinal()]));
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * @return The total number of requests of the specified type observed during the specified phase.
+	 */
+	public long getObserved(Phase phase, RecordType type) {
+		return seen[phase.ordinal()][type.ordinal()];
+	}
+
+}
@@ -0,0 +1,19 @@
+package io.quantumdb.nemesis.analysis;
+
+/**
+ * The phases of a scenario: before, during, and after the operation is performed.
+ */
+public enum Phase {
+
+	PRE,
+	DURING,
+	POST;
+
+	/**
+	 * @return The lower case name of the phase, as used in file names and reports.
+	 */
+	public String getLabel() {
+		return name().toLowerCase();
+	}
+
+}
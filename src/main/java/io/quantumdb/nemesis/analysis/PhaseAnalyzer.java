@@ -0,0 +1,30 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.IOException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Computes the per-phase statistics of every scenario in the specified folder in a single pass over its worker logs,
+ * and writes them to a statistics.tsv file in the folder of the scenario.
+ */
+@Slf4j
+public class PhaseAnalyzer {
+
+	public static void main(String[] args) throws IOException {
+		File folder = new File(args[0]);
+		File[] scenarios = folder.listFiles(file -> file.isDirectory() && !file.getName().startsWith(".") && !file.getName().startsWith("_") && !file.getName().equals("graphs"));
+		if (scenarios == null) {
+			log.warn("Not a folder: {}", folder.getAbsolutePath());
+			return;
+		}
+
+		for (File scenario : scenarios) {
+			PhaseStatistics statistics = PhaseStatistics.of(scenario);
+			statistics.write(new File(scenario, PhaseStatistics.FILE_NAME));
+			log.info("Analyzed: {}", scenario.getAbsolutePath());
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.logs.RecordHandler;
+import io.quantumdb.nemesis.profiler.RecordType;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Computes latency statistics per phase and per type of record in a single pass over the worker logs of a scenario.
+ * Durations are recorded in mergeable histograms, so the logs can be processed in parallel and combined afterwards.
+ */
+public class PhaseStatistics implements RecordHandler {
+
+	public static final String FILE_NAME = "statistics.tsv";
+
+	private static final int SIGNIFICANT_DIGITS = 3;
+	private static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+	private static final String[] PERCENTILE_HEADERS = { "P50", "P90", "P99", "P99.9" };
+
+	private final PhaseWindows windows;
+	private final Histogram[][] histograms = new Histogram[Phase.values().length][RecordType.values().length];
+
+	public PhaseStatistics(PhaseWindows windows) {
+		this.windows = windows;
+	}
+
+	/**
+	 * Reads all worker logs of the specified scenario in parallel, and returns their combined statistics.
+	 */
+	public static PhaseStatistics of(File scenario) throws IOException {
+		PhaseWindows windows = PhaseWindows.of(scenario);
+		try {
+			return Arrays.stream(Logs.listWorkerLogs(scenario))
+					.parallel()
+					.map(file -> {
+						PhaseStatistics statistics = new PhaseStatistics(windows);
+						try {
+							Logs.read(file, statistics);
+						}
+						catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+						return statistics;
+					})
+					.reduce(PhaseStatistics::merge)
+					.orElseGet(() -> new PhaseStatistics(windows));
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Override
+	public boolean handle(RecordType type, long start, long end) {
+		if (type == RecordType.OPERATION) {
+			return true;
+		}
+
+		int phase = windows.indexOf(start);
+		if (phase < 0) {
+			return true;
+		}
+
+		Histogram histogram = histograms[phase][type.ordinal()];
+		if (histogram == null) {
+			histogram = new Histogram(SIGNIFICANT_DIGITS);
+			histograms[phase][type.ordinal()] = histogram;
+		}
+		histogram.recordValue(Math.max(0, end - start));
+		return true;
+	}
+
+	/**
+	 * Adds the statistics of the other instance to this one.
+	 *
+	 * @return This instance.
+	 */
+	public PhaseStatistics merge(PhaseStatistics other) {
+		for (int phase = 0; phase < histograms.length; phase++) {
+			for (int type = 0; type < histograms[phase].length; type++) {
+				Histogram histogram = other.histograms[phase][type];
+				if (histogram == null) {
+					continue;
+				}
+
+				if (histograms[phase][type] == null) {
+					histograms[phase][type] = histogram.copy();
+				}
+				else {
+					histograms[phase][type].add(histogram);
+				}
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * @return The histogram of durations in microseconds of the specified type of record during the specified phase,
+	 * or null if no such records were observed.
+	 */
+	public Histogram getHistogram(Phase phase, RecordType type) {
+		return histograms[phase.ordinal()][type.ordinal()];
+	}
+
+	/**
+	 * @return The number of records per second of the specified type during the specified phase.
+	 */
+	public double getThroughput(Phase phase, RecordType type) {
+		Histogram histogram = getHistogram(phase, type);
+		long duration = windows.getDuration(phase);
+		if (histogram == null || duration == 0) {
+			return 0;
+		}
+		return histogram.getTotalCount() * 1_000_000.0 / duration;
+	}
+
+	public PhaseWindows getWindows() {
+		return windows;
+	}
+
+	/**
+	 * Writes the statistics as a tab-separated file, with all latencies expressed in milliseconds.
+	 */
+	public void write(File file) throws IOException {
+		try (Writer writer = new FileWriter(file)) {
+			writer.write("Phase\tWorker\tCount\tThroughput\tMean");
+			for (String header : PERCENTILE_HEADERS) {
+				writer.write("\t" + header);
+			}
+			writer.write("\tMax\n");
+
+			for (Phase phase : Phase.values()) {
+				for (RecordType type : RecordType.values()) {
+					Histogram histogram = getHistogram(phase, type);
+					if (histogram == null) {
+						continue;
+					}
+
+					writer.write(phase.getLabel() + "\t" + type.getLabel() + "\t" + histogram.getTotalCount());
+					writer.write(String.format("\t%.1f\t%.3f", getThroughput(phase, type), histogram.getMean() / 1000));
+					for (double percentile : PERCENTILES) {
+						writer.write(String.format("\t%.3f", histogram.getValueAtPercentile(percentile) / 1000.0));
+					}
+					writer.write(String.format("\t%.3f\n", histogram.getMaxValue() / 1000.0));
+				}
+			}
+		}
+	}
+
+}
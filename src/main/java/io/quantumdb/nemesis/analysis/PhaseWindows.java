@@ -0,0 +1,96 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.logs.SessionInfo;
+
+/**
+ * The time windows of the phases of a scenario, in microseconds since the start of the Session. The windows are
+ * derived from the moment the operation started and ended, and the startup and teardown timeouts of the Session.
+ * The first second after the workers have started and after the operation has ended is skipped, to allow the
+ * workers and the database to settle.
+ */
+public class PhaseWindows {
+
+	private static final long SETTLE_TIME = TimeUnit.SECONDS.toMicros(1);
+
+	private final long[] from = new long[Phase.values().length];
+	private final long[] to = new long[Phase.values().length];
+
+	/**
+	 * Derives the phase windows of a scenario from its operation log and session properties.
+	 */
+	public static PhaseWindows of(File scenario) throws IOException {
+		File operationLog = new File(scenario, Logs.OPERATION_LOG);
+		if (!operationLog.exists()) {
+			throw new IOException("No operation log found in: " + scenario);
+		}
+
+		AtomicLong operationStart = new AtomicLong(-1);
+		AtomicLong operationEnd = new AtomicLong(-1);
+		Logs.read(operationLog, (type, start, end) -> {
+			operationStart.set(start);
+			operationEnd.set(end);
+			return true;
+		});
+
+		if (operationStart.get() < 0) {
+			throw new IOException("Operation log is empty: " + operationLog);
+		}
+
+		SessionInfo info = SessionInfo.read(scenario);
+		return new PhaseWindows(operationStart.get(), operationEnd.get(),
+				TimeUnit.MILLISECONDS.toMicros(info.getStartupTimeout()),
+				TimeUnit.MILLISECONDS.toMicros(info.getTeardownTimeout()));
+	}
+
+	/**
+	 * @param operationStart The start of the operation in microseconds since the start of the Session.
+	 * @param operationEnd The end of the operation in microseconds since the start of the Session.
+	 * @param startupTimeout The time the workers ran before the operation started, in microseconds.
+	 * @param teardownTimeout The time the workers ran after the operation ended, in microseconds.
+	 */
+	public PhaseWindows(long operationStart, long operationEnd, long startupTimeout, long teardownTimeout) {
+		set(Phase.PRE, Math.max(0, operationStart - startupTimeout) + SETTLE_TIME, operationStart);
+		set(Phase.DURING, operationStart, operationEnd);
+		set(Phase.POST, operationEnd + SETTLE_TIME, operationEnd + teardownTimeout);
+	}
+
+	private void set(Phase phase, long from, long to) {
+		this.from[phase.ordinal()] = from;
+		this.to[phase.ordinal()] = Math.max(from, to);
+	}
+
+	/**
+	 * @param timestamp A timestamp in microseconds since the start of the Session.
+	 * @return The ordinal of the Phase whose window contains the timestamp, or -1 if it falls outside all windows.
+	 */
+	public int indexOf(long timestamp) {
+		for (int i = 0; i < from.length; i++) {
+			if (timestamp >= from[i] && timestamp < to[i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public long getFrom(Phase phase) {
+		return from[phase.ordinal()];
+	}
+
+	public long getTo(Phase phase) {
+		return to[phase.ordinal()];
+	}
+
+	/**
+	 * @return The length of the window of the specified phase in microseconds.
+	 */
+	public long getDuration(Phase phase) {
+		return to[phase.ordinal()] - from[phase.ordinal()];
+	}
+
+}
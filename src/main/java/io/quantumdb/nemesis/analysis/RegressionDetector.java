@@ -0,0 +1,227 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.profiler.RecordType;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares two profiling runs (for instance before and after upgrading QuantumDB or changing database settings), and
+ * determines per operation, phase and type of worker whether the latencies changed significantly. Usage:
+ *
+ * <pre>
+ *     RegressionDetector &lt;baseline folder&gt; &lt;candidate folder&gt; [output file] [minimum change in %]
+ * </pre>
+ *
+ * For every combination a two-sided Mann-Whitney U test is performed on the latency distributions, and bootstrap
+ * confidence intervals are computed for the change in median and p99 latency. Since hundreds of combinations are
+ * tested at once, the p-values are adjusted for multiple comparisons using the Holm-Bonferroni method. A change is
+ * only flagged when the adjusted p-value is significant and the confidence interval of the change in median or p99
+ * latency lies entirely above (or below) the minimum relative change of the baseline latency, 5% by default.
+ * Durations are sampled with a fixed seed, so repeated analyses of the same runs give the same results.
+ */
+@Slf4j
+public class RegressionDetector {
+
+	private static final String DEFAULT_OUTPUT = "regressions.tsv";
+
+	private static final int SAMPLE_SIZE = 5_000;
+	private static final int RESAMPLES = 1_000;
+	private static final double CONFIDENCE = 0.95;
+	private static final double SIGNIFICANCE = 0.01;
+	private static final double DEFAULT_MINIMUM_CHANGE = 0.05;
+	private static final long SEED = 42;
+
+	public enum Verdict {
+		REGRESSION, IMPROVEMENT, NO_CHANGE
+	}
+
+	private double minimumChange = DEFAULT_MINIMUM_CHANGE;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: RegressionDetector <baseline folder> <candidate folder> [output file] "
+					+ "[minimum change in %]");
+			return;
+		}
+
+		Map<String, LatencySample> baseline = load(new File(args[0]));
+		Map<String, LatencySample> candidate = load(new File(args[1]));
+		File output = new File(args.length > 2 ? args[2] : DEFAULT_OUTPUT);
+
+		RegressionDetector detector = new RegressionDetector();
+		if (args.length > 3) {
+			detector.setMinimumChange(Double.parseDouble(args[3]) / 100);
+		}
+
+		int regressions = detector.compare(baseline, candidate, output);
+		log.info("Found {} significant regressions, written results to: {}", regressions, output.getAbsolutePath());
+	}
+
+	private static Map<String, LatencySample> load(File folder) throws IOException {
+		File[] children = folder.listFiles(File::isDirectory);
+		if (children == null) {
+			throw new IOException("Not a folder: " + folder);
+		}
+
+		Map<String, LatencySample> samples = Maps.newTreeMap();
+		for (File scenario : children) {
+			if (new File(scenario, Logs.OPERATION_LOG).exists()) {
+				log.info("Sampling: {}", scenario.getAbsolutePath());
+				samples.put(scenario.getName(), LatencySample.of(scenario, SAMPLE_SIZE, SEED));
+			}
+		}
+		return samples;
+	}
+
+	/**
+	 * Sets the smallest relative change (for instance 0.05 for 5%) of the median or p99 latency which is reported as
+	 * a regression or improvement. The bound of the confidence interval closest to zero must exceed this fraction of
+	 * the baseline latency, so statistically significant but negligible changes are ignored.
+	 */
+	public void setMinimumChange(double minimumChange) {
+		if (minimumChange < 0) {
+			throw new IllegalArgumentException("The minimum change cannot be negative: " + minimumChange);
+		}
+		this.minimumChange = minimumChange;
+	}
+
+	/**
+	 * Compares every operation present in both runs, and writes the results as a tab-separated file. The p-values of
+	 * all comparisons are adjusted as a single family of tests before judging any of them.
+	 *
+	 * @return The number of significant regressions.
+	 */
+	public int compare(Map<String, LatencySample> baseline, Map<String, LatencySample> candidate, File output)
+			throws IOException {
+
+		Set<String> operations = Sets.newTreeSet(baseline.keySet());
+		operations.retainAll(candidate.keySet());
+
+		Random random = new Random(SEED);
+		List<Comparison> comparisons = Lists.newArrayList();
+		for (String operation : operations) {
+			for (Phase phase : Phase.values()) {
+				for (RecordType type : RecordType.values()) {
+					long[] left = baseline.get(operation).getSortedDurations(phase, type);
+					long[] right = candidate.get(operation).getSortedDurations(phase, type);
+					if (left.length == 0 || right.length == 0) {
+						continue;
+					}
+
+					Comparison comparison = new Comparison(operation, phase, type, left, right);
+					comparison.median = StatisticalTests.bootstrapPercentileDifference(left, right, 50.0,
+							RESAMPLES, CONFIDENCE, random);
+					comparison.tail = StatisticalTests.bootstrapPercentileDifference(left, right, 99.0,
+							RESAMPLES, CONFIDENCE, random);
+					comparison.pValue = StatisticalTests.mannWhitneyPValue(left, right);
+					comparisons.add(comparison);
+				}
+			}
+		}
+
+		double[] adjusted = StatisticalTests.holmAdjust(comparisons.stream()
+				.mapToDouble(comparison -> comparison.pValue)
+				.toArray());
+
+		int regressions = 0;
+		try (Writer writer = new FileWriter(output)) {
+			writer.write("Operation\tPhase\tWorker\tBaselineCount\tCandidateCount\tBaselineP50\tCandidateP50"
+					+ "\tP50DiffLow\tP50DiffHigh\tBaselineP99\tCandidateP99\tP99DiffLow\tP99DiffHigh\tPValue"
+					+ "\tAdjustedPValue\tVerdict\n");
+
+			for (int i = 0; i < comparisons.size(); i++) {
+				Comparison comparison = comparisons.get(i);
+				long[] left = comparison.left;
+				long[] right = comparison.right;
+				long baselineMedian = StatisticalTests.percentile(left, 50.0);
+				long baselineTail = StatisticalTests.percentile(left, 99.0);
+				Verdict verdict = judge(adjusted[i], comparison.median, comparison.tail, baselineMedian, baselineTail);
+
+				if (verdict == Verdict.REGRESSION) {
+					regressions++;
+					log.warn("Regression in {} ({}) for {}: p50 {} -> {} ms, p99 {} -> {} ms (adjusted p = {})",
+							comparison.operation, comparison.phase.getLabel(), comparison.type.getLabel(),
+							millis(baselineMedian), millis(StatisticalTests.percentile(right, 50.0)),
+							millis(baselineTail), millis(StatisticalTests.percentile(right, 99.0)),
+							String.format("%.2g", adjusted[i]));
+				}
+
+				writer.write(comparison.operation + "\t" + comparison.phase.getLabel()
+						+ "\t" + comparison.type.getLabel()
+						+ "\t" + left.length + "\t" + right.length
+						+ "\t" + millis(baselineMedian)
+						+ "\t" + millis(StatisticalTests.percentile(right, 50.0))
+						+ "\t" + millis(comparison.median[0]) + "\t" + millis(comparison.median[1])
+						+ "\t" + millis(baselineTail)
+						+ "\t" + millis(StatisticalTests.percentile(right, 99.0))
+						+ "\t" + millis(comparison.tail[0]) + "\t" + millis(comparison.tail[1])
+						+ "\t" + String.format("%.3g", comparison.pValue)
+						+ "\t" + String.format("%.3g", adjusted[i]) + "\t" + verdict + "\n");
+			}
+		}
+		return regressions;
+	}
+
+	/**
+	 * @param pValue The p-value of the comparison, adjusted for multiple comparisons.
+	 * @param median The confidence interval of the change in median latency.
+	 * @param tail The confidence interval of the change in p99 latency.
+	 * @param baselineMedian The median latency of the baseline.
+	 * @param baselineTail The p99 latency of the baseline.
+	 */
+	Verdict judge(double pValue, double[] median, double[] tail, double baselineMedian, double baselineTail) {
+		if (pValue >= SIGNIFICANCE) {
+			return Verdict.NO_CHANGE;
+		}
+
+		double medianThreshold = minimumChange * baselineMedian;
+		double tailThreshold = minimumChange * baselineTail;
+		if (median[0] > medianThreshold || tail[0] > tailThreshold) {
+			return Verdict.REGRESSION;
+		}
+		if (median[1] < -medianThreshold || tail[1] < -tailThreshold) {
+			return Verdict.IMPROVEMENT;
+		}
+		return Verdict.NO_CHANGE;
+	}
+
+	/**
+	 * The latency distributions of a single type of worker in a single phase of an operation in both runs.
+	 */
+	private static class Comparison {
+		private final String operation;
+		private final Phase phase;
+		private final RecordType type;
+		private final long[] left;
+		private final long[] right;
+
+		private double[] median;
+		private double[] tail;
+		private double pValue;
+
+		private Comparison(String operation, Phase phase, RecordType type, long[] left, long[] right) {
+			this.operation = operation;
+			this.phase = phase;
+			this.type = type;
+			this.left = left;
+			this.right = right;
+		}
+	}
+
+	private static String millis(double micros) {
+		return String.format("%.3f", micros / 1000);
+	}
+
+}
@@ -0,0 +1,105 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.quantumdb.nemesis.analysis.StallDetector.Stall;
+import io.quantumdb.nemesis.profiler.RecordType;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Detects the stalls of every type of worker in every scenario in the specified folder. Usage:
+ *
+ * <pre>
+ *     StallAnalyzer &lt;folder&gt; [gap threshold in ms] [in-flight age in ms]
+ * </pre>
+ *
+ * Every stall is listed in a stalls.tsv file in the folder of its scenario, and the number of stalls, their total
+ * duration, and their overlap with the operation are summarized per operation and type of worker in a stalls.tsv
+ * file in the specified folder.
+ */
+@Slf4j
+public class StallAnalyzer {
+
+	private static final String FILE_NAME = "stalls.tsv";
+
+	private static final long DEFAULT_GAP_THRESHOLD = 1_000;
+	private static final long DEFAULT_IN_FLIGHT_AGE = 500;
+
+	public static void main(String[] args) throws IOException {
+		File folder = new File(args[0]);
+		long gapThreshold = TimeUnit.MILLISECONDS.toMicros(args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_GAP_THRESHOLD);
+		long inFlightAge = TimeUnit.MILLISECONDS.toMicros(args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_IN_FLIGHT_AGE);
+
+		File[] scenarios = folder.listFiles(file -> file.isDirectory() && !file.getName().startsWith(".") && !file.getName().startsWith("_") && !file.getName().equals("graphs"));
+		if (scenarios == null) {
+			log.warn("Not a folder: {}", folder.getAbsolutePath());
+			return;
+		}
+
+		try (Writer summary = new FileWriter(new File(folder, FILE_NAME))) {
+			summary.write("Operation\tWorker\tStalls\tTotalDuration\tStallsDuringOperation\tOverlapWithOperation"
+					+ "\tLongest\n");
+
+			for (File scenario : scenarios) {
+				PhaseWindows windows = PhaseWindows.of(scenario);
+				long operationStart = windows.getFrom(Phase.DURING);
+				long operationEnd = windows.getTo(Phase.DURING);
+
+				List<Stall> stalls = StallDetector.of(scenario, gapThreshold, inFlightAge).detect();
+				writeStalls(new File(scenario, FILE_NAME), stalls, operationStart, operationEnd);
+
+				for (RecordType type : RecordType.values()) {
+					long count = 0;
+					long total = 0;
+					long during = 0;
+					long overlap = 0;
+					long longest = 0;
+					for (Stall stall : stalls) {
+						if (stall.getType() != type) {
+							continue;
+						}
+						count++;
+						total += stall.getDuration();
+						longest = Math.max(longest, stall.getDuration());
+
+						long stallOverlap = stall.getOverlap(operationStart, operationEnd);
+						overlap += stallOverlap;
+						during += stallOverlap > 0 ? 1 : 0;
+					}
+
+					if (count == 0) {
+						continue;
+					}
+
+					summary.write(scenario.getName() + "\t" + type.getLabel() + "\t" + count + "\t" + millis(total)
+							+ "\t" + during + "\t" + millis(overlap) + "\t" + millis(longest) + "\n");
+					log.info("{}: {} stalled {} times for a total of {} ms ({} ms during the operation)",
+							scenario.getName(), type.getLabel(), count, millis(total), millis(overlap));
+				}
+			}
+		}
+	}
+
+	private static void writeStalls(File file, List<Stall> stalls, long operationStart, long operationEnd)
+			throws IOException {
+
+		try (Writer writer = new FileWriter(file)) {
+			writer.write("Worker\tStart\tEnd\tDuration\tOverlapWithOperation\n");
+			for (Stall stall : stalls) {
+				writer.write(stall.getType().getLabel() + "\t" + millis(stall.getStart()) + "\t" + millis(stall.getEnd())
+						+ "\t" + millis(stall.getDuration()) + "\t"
+						+ millis(stall.getOverlap(operationStart, operationEnd)) + "\n");
+			}
+		}
+	}
+
+	private static long millis(long micros) {
+		return TimeUnit.MICROSECONDS.toMillis(micros);
+	}
+
+}
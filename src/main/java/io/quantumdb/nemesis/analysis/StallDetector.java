@@ -0,0 +1,221 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.logs.RecordHandler;
+import io.quantumdb.nemesis.profiler.RecordType;
+import lombok.Data;
+
+/**
+ * Finds the intervals in which a type of worker made no progress at all. An interval is considered a stall when
+ * either no request of that type completed for longer than the gap threshold, or when there were requests in flight
+ * and all of them had been running for longer than the in-flight age. Overlapping stalls are merged, and stalls
+ * shorter than the in-flight age are ignored. Requests are counted in intervals of a fixed resolution, so memory
+ * usage does not grow with the number of requests.
+ */
+public class StallDetector implements RecordHandler {
+
+	@Data
+	public static class Stall {
+		private final RecordType type;
+		private final long start;
+		private final long end;
+
+		public long getDuration() {
+			return end - start;
+		}
+
+		/**
+		 * @return The length of the part of this stall which overlaps with the specified interval.
+		 */
+		public long getOverlap(long from, long to) {
+			return Math.max(0, Math.min(end, to) - Math.max(start, from));
+		}
+	}
+
+	private static final long DEFAULT_RESOLUTION = TimeUnit.MILLISECONDS.toMicros(10);
+	private static final int INITIAL_BUCKETS = 1024;
+
+	/**
+	 * The number of requests of a single type which started, became older than the in-flight age, and ended within
+	 * every interval of the resolution.
+	 */
+	private static class Buckets {
+		private int[] started = new int[INITIAL_BUCKETS];
+		private int[] aged = new int[INITIAL_BUCKETS];
+		private int[] ended = new int[INITIAL_BUCKETS];
+		private int size;
+
+		private void ensureCapacity(int bucket) {
+			if (bucket >= started.length) {
+				int length = Math.max(bucket + 1, started.length * 2);
+				started = Arrays.copyOf(started, length);
+				aged = Arrays.copyOf(aged, length);
+				ended = Arrays.copyOf(ended, length);
+			}
+			size = Math.max(size, bucket + 1);
+		}
+	}
+
+	private final long gapThreshold;
+	private final long inFlightAge;
+	private final long resolution;
+
+	private final Buckets[] buckets = new Buckets[RecordType.values().length];
+
+	/**
+	 * Creates a StallDetector which detects stalls with a resolution of 10 milliseconds.
+	 *
+	 * @param gapThreshold The longest time in microseconds without any completed request which is not a stall.
+	 * @param inFlightAge The age in microseconds beyond which requests in flight are considered stuck.
+	 */
+	public StallDetector(long gapThreshold, long inFlightAge) {
+		this(gapThreshold, inFlightAge, DEFAULT_RESOLUTION);
+	}
+
+	/**
+	 * @param gapThreshold The longest time in microseconds without any completed request which is not a stall.
+	 * @param inFlightAge The age in microseconds beyond which requests in flight are considered stuck.
+	 * @param resolution The interval in microseconds to which the start and end of every request are rounded down.
+	 *                   Memory usage grows with the duration of the run divided by the resolution, rather than with
+	 *                   the number of requests.
+	 */
+	public StallDetector(long gapThreshold, long inFlightAge, long resolution) {
+		if (resolution <= 0) {
+			throw new IllegalArgumentException("The resolution must be positive: " + resolution);
+		}
+		this.gapThreshold = gapThreshold;
+		this.inFlightAge = inFlightAge;
+		this.resolution = resolution;
+	}
+
+	public static StallDetector of(File scenario, long gapThreshold, long inFlightAge) throws IOException {
+		StallDetector detector = new StallDetector(gapThreshold, inFlightAge);
+		for (File file : Logs.listWorkerLogs(scenario)) {
+			Logs.read(file, detector);
+		}
+		return detector;
+	}
+
+	@Override
+	public boolean handle(RecordType type, long start, long end) {
+		if (type.isError() || type == RecordType.OPERATION) {
+			return true;
+		}
+
+		Buckets counts = buckets[type.ordinal()];
+		if (counts == null) {
+			counts = new Buckets();
+			buckets[type.ordinal()] = counts;
+		}
+
+		end = Math.max(start, end);
+		int startBucket = toBucket(start);
+		int agedBucket = toBucket(Math.min(end, start + inFlightAge));
+		int endBucket = toBucket(end);
+
+		counts.ensureCapacity(endBucket);
+		counts.started[startBucket]++;
+		counts.aged[agedBucket]++;
+		counts.ended[endBucket]++;
+		return true;
+	}
+
+	private int toBucket(long timestamp) {
+		return Ints.checkedCast(Math.max(0, timestamp) / resolution);
+	}
+
+	/**
+	 * @return The stalls of all types of workers, ordered by type and start.
+	 */
+	public List<Stall> detect() {
+		List<Stall> stalls = Lists.newArrayList();
+		for (RecordType type : RecordType.values()) {
+			stalls.addAll(detect(type));
+		}
+		return stalls;
+	}
+
+	/**
+	 * @return The stalls of the specified type of worker, ordered by start. The start and end of every stall are
+	 * rounded down to the resolution.
+	 */
+	public List<Stall> detect(RecordType type) {
+		Buckets counts = buckets[type.ordinal()];
+		if (counts == null) {
+			return Lists.newArrayList();
+		}
+
+		List<Stall> candidates = Lists.newArrayList();
+
+		// No completions for longer than the gap threshold.
+		int previousEnd = -1;
+		for (int bucket = 0; bucket < counts.size; bucket++) {
+			if (counts.ended[bucket] == 0) {
+				continue;
+			}
+			if (previousEnd >= 0 && (bucket - previousEnd) * resolution > gapThreshold) {
+				candidates.add(new Stall(type, previousEnd * resolution, bucket * resolution));
+			}
+			previousEnd = bucket;
+		}
+
+		// Requests in flight, none of which started within the in-flight age. Sweeps over the intervals in which
+		// requests start, become old, and end, keeping track of the number of (young) requests in flight.
+		long started = 0;
+		long ended = 0;
+		long aged = 0;
+		long stallStart = -1;
+		for (int bucket = 0; bucket < counts.size; bucket++) {
+			if (counts.started[bucket] == 0 && counts.aged[bucket] == 0 && counts.ended[bucket] == 0) {
+				continue;
+			}
+
+			started += counts.started[bucket];
+			aged += counts.aged[bucket];
+			ended += counts.ended[bucket];
+
+			long next = bucket * resolution;
+			boolean inFlight = started > ended;
+			boolean young = started > aged;
+			if (inFlight && !young && stallStart < 0) {
+				stallStart = next;
+			}
+			else if ((!inFlight || young) && stallStart >= 0) {
+				candidates.add(new Stall(type, stallStart, next));
+				stallStart = -1;
+			}
+		}
+
+		return merge(candidates);
+	}
+
+	private List<Stall> merge(List<Stall> candidates) {
+		candidates.sort((left, right) -> Long.compare(left.getStart(), right.getStart()));
+
+		List<Stall> merged = Lists.newArrayList();
+		Stall current = null;
+		for (Stall candidate : candidates) {
+			if (current != null && candidate.getStart() <= current.getEnd()) {
+				current = new Stall(current.getType(), current.getStart(), Math.max(current.getEnd(), candidate.getEnd()));
+				continue;
+			}
+			if (current != null && current.getDuration() >= inFlightAge) {
+				merged.add(current);
+			}
+			current = candidate;
+		}
+		if (current != null && current.getDuration() >= inFlightAge) {
+			merged.add(current);
+		}
+		return merged;
+	}
+
+}
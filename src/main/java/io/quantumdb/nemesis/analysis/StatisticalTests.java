@@ -0,0 +1,165 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Nonparametric statistics for comparing latency distributions, which are typically skewed and multimodal and
+ * therefore badly described by their mean and standard deviation. All methods expect samples sorted in ascending
+ * order.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class StatisticalTests {
+
+	/**
+	 * @return The value at the specified percentile (0-100) of the sorted sample, using the nearest rank method.
+	 */
+	public static long percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			throw new IllegalArgumentException("Cannot compute a percentile of an empty sample");
+		}
+		int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+	}
+
+	/**
+	 * Performs a two-sided Mann-Whitney U test, using the normal approximation with tie and continuity correction.
+	 *
+	 * @return The probability of observing a difference between the two samples at least this large if both were
+	 * drawn from the same distribution.
+	 */
+	public static double mannWhitneyPValue(long[] left, long[] right) {
+		long n1 = left.length;
+		long n2 = right.length;
+		if (n1 == 0 || n2 == 0) {
+			return 1.0;
+		}
+
+		// Walk both sorted samples in parallel, assigning the average rank to every group of tied values.
+		double rankSum = 0;
+		double tieCorrection = 0;
+		long rank = 0;
+		int i = 0;
+		int j = 0;
+		while (i < left.length || j < right.length) {
+			long value = j == right.length || (i < left.length && left[i] <= right[j]) ? left[i] : right[j];
+
+			long inLeft = 0;
+			while (i < left.length && left[i] == value) {
+				inLeft++;
+				i++;
+			}
+			long inRight = 0;
+			while (j < right.length && right[j] == value) {
+				inRight++;
+				j++;
+			}
+
+			long ties = inLeft + inRight;
+			rankSum += inLeft * (rank + (ties + 1) / 2.0);
+			tieCorrection += (double) ties * ties * ties - ties;
+			rank += ties;
+		}
+
+		double n = n1 + n2;
+		double u = rankSum - n1 * (n1 + 1) / 2.0;
+		double mean = n1 * n2 / 2.0;
+		double variance = n1 * n2 / 12.0 * ((n + 1) - tieCorrection / (n * (n - 1)));
+		if (variance <= 0) {
+			return 1.0;
+		}
+
+		double z = Math.max(0, Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+		return Math.min(1.0, erfc(z / Math.sqrt(2)));
+	}
+
+	/**
+	 * Estimates a confidence interval of the difference (right - left) of the specified percentile of two samples,
+	 * by resampling both samples with replacement.
+	 *
+	 * @return The lower and upper bound of the confidence interval.
+	 */
+	public static double[] bootstrapPercentileDifference(long[] left, long[] right, double percentile,
+			int resamples, double confidence, Random random) {
+
+		if (left.length == 0 || right.length == 0) {
+			throw new IllegalArgumentException("Cannot bootstrap an empty sample");
+		}
+
+		double[] differences = new double[resamples];
+		int[] counts = new int[Math.max(left.length, right.length)];
+		for (int i = 0; i < resamples; i++) {
+			long leftValue = resamplePercentile(left, percentile, counts, random);
+			long rightValue = resamplePercentile(right, percentile, counts, random);
+			differences[i] = rightValue - leftValue;
+		}
+
+		Arrays.sort(differences);
+		double alpha = (1 - confidence) / 2;
+		int lower = (int) Math.floor(alpha * (resamples - 1));
+		int upper = (int) Math.ceil((1 - alpha) * (resamples - 1));
+		return new double[] { differences[lower], differences[upper] };
+	}
+
+	/**
+	 * Adjusts the p-values of a family of tests for multiple comparisons using the Holm-Bonferroni method, which
+	 * controls the probability of any false positive in the family without assuming the tests are independent.
+	 *
+	 * @return The adjusted p-values, in the same order as the specified p-values.
+	 */
+	public static double[] holmAdjust(double[] pValues) {
+		int m = pValues.length;
+		Integer[] order = new Integer[m];
+		for (int i = 0; i < m; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(pValues[a], pValues[b]));
+
+		double[] adjusted = new double[m];
+		double previous = 0;
+		for (int rank = 0; rank < m; rank++) {
+			int index = order[rank];
+			previous = Math.max(previous, Math.min(1, (m - rank) * pValues[index]));
+			adjusted[index] = previous;
+		}
+		return adjusted;
+	}
+
+	/**
+	 * Draws a resample of the same size from the sorted sample, and returns its percentile. Since the sample is
+	 * sorted, counting how often every index is drawn suffices to find the percentile without sorting the resample.
+	 */
+	private static long resamplePercentile(long[] sorted, double percentile, int[] counts, Random random) {
+		int n = sorted.length;
+		Arrays.fill(counts, 0, n, 0);
+		for (int i = 0; i < n; i++) {
+			counts[random.nextInt(n)]++;
+		}
+
+		int rank = Math.max(1, (int) Math.ceil(percentile / 100.0 * n));
+		int cumulative = 0;
+		for (int i = 0; i < n; i++) {
+			cumulative += counts[i];
+			if (cumulative >= rank) {
+				return sorted[i];
+			}
+		}
+		return sorted[n - 1];
+	}
+
+	/**
+	 * The complementary error function, with a fractional error of less than 1.2e-7.
+	 */
+	static double erfc(double x) {
+		double z = Math.abs(x);
+		double t = 1 / (1 + 0.5 * z);
+		double result = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+				+ t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 + t * (-0.82215223
+				+ t * 0.17087277)))))))));
+		return x >= 0 ? result : 2 - result;
+	}
+
+}
@@ -0,0 +1,130 @@
+package io.quantumdb.nemesis.analysis;
+
+import javax.imageio.ImageIO;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import io.quantumdb.nemesis.Grapher;
+import io.quantumdb.nemesis.profiler.RecordType;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Extracts the throughput timeline of every scenario in the specified folder, and renders it with the window of the
+ * operation overlaid. For every scenario this writes a throughput.tsv and throughput.png file in the folder of the
+ * scenario, and the estimated number of requests lost during each operation is summarized in throughput-lost.tsv in
+ * the specified folder.
+ */
+@Slf4j
+public class ThroughputAnalyzer {
+
+	private static final String SUMMARY_FILE = "throughput-lost.tsv";
+	private static final String IMAGE_FILE = "throughput.png";
+
+	private static final int MAX_WIDTH = 1200;
+	private static final int HEIGHT = 150;
+	private static final int PADDING = 5;
+	private static final int MIN_TICK_SPACING = 5;
+
+	public static void main(String[] args) throws IOException {
+		File folder = new File(args[0]);
+		File[] scenarios = folder.listFiles(file -> file.isDirectory() && !file.getName().startsWith(".") && !file.getName().startsWith("_") && !file.getName().equals("graphs"));
+		if (scenarios == null) {
+			log.warn("Not a folder: {}", folder.getAbsolutePath());
+			return;
+		}
+
+		try (Writer summary = new FileWriter(new File(folder, SUMMARY_FILE))) {
+			summary.write("Scenario\tWorker\tBaseline\tDuring\tLost\n");
+
+			for (File scenario : scenarios) {
+				PhaseWindows windows = PhaseWindows.of(scenario);
+				ThroughputTimeline timeline = ThroughputTimeline.of(scenario, ThroughputTimeline.DEFAULT_INTERVAL);
+
+				timeline.write(new File(scenario, ThroughputTimeline.FILE_NAME));
+				render(timeline, windows, new File(scenario, IMAGE_FILE));
+
+				for (RecordType type : RecordType.values()) {
+					if (!timeline.contains(type)) {
+						continue;
+					}
+
+					long lost = timeline.getThroughputLost(type, windows);
+					summary.write(scenario.getName() + "\t" + type.getLabel()
+							+ String.format("\t%.1f\t%.1f", timeline.getAverageThroughput(type, windows, Phase.PRE),
+									timeline.getAverageThroughput(type, windows, Phase.DURING))
+							+ "\t" + lost + "\n");
+
+					log.info("{}: {} lost {} requests during the operation", scenario.getName(), type.getLabel(), lost);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renders the timeline as one line per type of worker, with one pixel per interval. Long timelines are limited to
+	 * MAX_WIDTH pixels, in which case every pixel shows the average throughput of several consecutive intervals.
+	 */
+	static void render(ThroughputTimeline timeline, PhaseWindows windows, File output) throws IOException {
+		int buckets = timeline.getBuckets();
+		int step = Math.max(1, (buckets + MAX_WIDTH - 1) / MAX_WIDTH);
+		int width = Math.max(1, (buckets + step - 1) / step);
+		BufferedImage image = new BufferedImage(width, HEIGHT + PADDING, BufferedImage.TYPE_INT_RGB);
+		Graphics graphics = image.getGraphics();
+
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+
+		long span = timeline.getInterval() * step;
+		int operationFrom = (int) (windows.getFrom(Phase.DURING) / span);
+		int operationTo = (int) (windows.getTo(Phase.DURING) / span);
+		graphics.setColor(new Color(0f, 0f, 0f, 0.2f));
+		graphics.fillRect(operationFrom, 0, Math.max(1, operationTo - operationFrom), HEIGHT);
+
+		double[][] throughput = new double[RecordType.values().length][width];
+		double max = 0;
+		for (RecordType type : RecordType.values()) {
+			for (int x = 0; x < width; x++) {
+				int from = x * step;
+				throughput[type.ordinal()][x] = timeline.getThroughput(type, from, Math.min(buckets, from + step));
+				max = Math.max(max, throughput[type.ordinal()][x]);
+			}
+		}
+
+		for (RecordType type : RecordType.values()) {
+			if (!timeline.contains(type) || max == 0) {
+				continue;
+			}
+
+			graphics.setColor(Grapher.getColor(type));
+			int previous = -1;
+			for (int x = 0; x < width; x++) {
+				int y = HEIGHT - (int) Math.round(throughput[type.ordinal()][x] / max * (HEIGHT - 1));
+				if (previous >= 0) {
+					graphics.drawLine(x - 1, previous, x, y);
+				}
+				previous = y;
+			}
+		}
+
+		graphics.setColor(Color.BLACK);
+		graphics.drawLine(0, HEIGHT, width, HEIGHT);
+
+		// One tick per second, or per 10, 100, ... seconds when the ticks would be too close together.
+		long tick = 1_000_000;
+		while (tick / span < MIN_TICK_SPACING) {
+			tick *= 10;
+		}
+		for (long time = 0; time / span <= width; time += tick) {
+			int x = (int) (time / span);
+			graphics.drawLine(x, HEIGHT, x, HEIGHT + 4);
+		}
+
+		ImageIO.write(image, "png", output);
+	}
+
+}
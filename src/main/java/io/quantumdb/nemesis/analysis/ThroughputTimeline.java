@@ -0,0 +1,206 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.logs.RecordHandler;
+import io.quantumdb.nemesis.profiler.RecordType;
+
+/**
+ * Counts the completed requests per type of worker in fixed intervals of time, based on the moment at which every
+ * request completed. A blocking operation typically shows up as a collapse in the number of completions per
+ * interval, even when the latencies of the requests which do complete look reasonable.
+ */
+public class ThroughputTimeline implements RecordHandler {
+
+	public static final String FILE_NAME = "throughput.tsv";
+	public static final long DEFAULT_INTERVAL = TimeUnit.MILLISECONDS.toMicros(100);
+
+	private final long interval;
+	private final long[][] counts = new long[RecordType.values().length][];
+	private int buckets;
+
+	/**
+	 * @param interval The length of every interval in microseconds.
+	 */
+	public ThroughputTimeline(long interval) {
+		this.interval = interval;
+	}
+
+	/**
+	 * Reads all worker logs of the specified scenario in parallel, and returns their combined timeline.
+	 */
+	public static ThroughputTimeline of(File scenario, long interval) throws IOException {
+		try {
+			return Arrays.stream(Logs.listWorkerLogs(scenario))
+					.parallel()
+					.map(file -> {
+						ThroughputTimeline timeline = new ThroughputTimeline(interval);
+						try {
+							Logs.read(file, timeline);
+						}
+						catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+						return timeline;
+					})
+					.reduce(ThroughputTimeline::merge)
+					.orElseGet(() -> new ThroughputTimeline(interval));
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Override
+	public boolean handle(RecordType type, long start, long end) {
+		if (type.isError() || type == RecordType.OPERATION || end < 0) {
+			return true;
+		}
+
+		int bucket = (int) (end / interval);
+		long[] series = counts[type.ordinal()];
+		if (series == null || bucket >= series.length) {
+			series = Arrays.copyOf(series == null ? new long[0] : series, Math.max(bucket + 1, buckets * 2));
+			counts[type.ordinal()] = series;
+		}
+
+		series[bucket]++;
+		buckets = Math.max(buckets, bucket + 1);
+		return true;
+	}
+
+	/**
+	 * Adds the counts of the other timeline to this one. Both timelines must use the same interval.
+	 *
+	 * @return This instance.
+	 */
+	public ThroughputTimeline merge(ThroughputTimeline other) {
+		if (other.interval != interval) {
+			throw new IllegalArgumentException("Cannot merge timelines with different intervals");
+		}
+
+		for (int type = 0; type < counts.length; type++) {
+			long[] series = other.counts[type];
+			if (series == null) {
+				continue;
+			}
+
+			if (counts[type] == null || counts[type].length < series.length) {
+				counts[type] = Arrays.copyOf(counts[type] == null ? new long[0] : counts[type], series.length);
+			}
+			for (int bucket = 0; bucket < series.length; bucket++) {
+				counts[type][bucket] += series[bucket];
+			}
+		}
+		buckets = Math.max(buckets, other.buckets);
+		return this;
+	}
+
+	public long getInterval() {
+		return interval;
+	}
+
+	public int getBuckets() {
+		return buckets;
+	}
+
+	public boolean contains(RecordType type) {
+		return counts[type.ordinal()] != null;
+	}
+
+	/**
+	 * @return The number of requests of the specified type which completed during the specified interval.
+	 */
+	public long getCount(RecordType type, int bucket) {
+		long[] series = counts[type.ordinal()];
+		if (series == null || bucket >= series.length) {
+			return 0;
+		}
+		return series[bucket];
+	}
+
+	/**
+	 * @return The number of requests of the specified type per second during the specified interval.
+	 */
+	public double getThroughput(RecordType type, int bucket) {
+		return getCount(type, bucket) * (double) TimeUnit.SECONDS.toMicros(1) / interval;
+	}
+
+	/**
+	 * @return The average number of requests of the specified type per second over the intervals from (inclusive) to
+	 * to (exclusive).
+	 */
+	public double getThroughput(RecordType type, int from, int to) {
+		if (to <= from) {
+			return 0;
+		}
+
+		long total = 0;
+		for (int bucket = from; bucket < to; bucket++) {
+			total += getCount(type, bucket);
+		}
+		return total * (double) TimeUnit.SECONDS.toMicros(1) / ((to - from) * interval);
+	}
+
+	/**
+	 * @return The average number of requests of the specified type per second over the intervals which lie entirely
+	 * within the window of the specified phase.
+	 */
+	public double getAverageThroughput(RecordType type, PhaseWindows windows, Phase phase) {
+		int first = (int) ((windows.getFrom(phase) + interval - 1) / interval);
+		int last = (int) (windows.getTo(phase) / interval);
+		return getThroughput(type, first, last);
+	}
+
+	/**
+	 * Estimates the number of requests of the specified type which did not complete during the operation, compared
+	 * to the throughput observed before the operation. Requests which were delayed but still completed before the
+	 * end of the operation are not counted as lost.
+	 */
+	public long getThroughputLost(RecordType type, PhaseWindows windows) {
+		int first = (int) (windows.getFrom(Phase.DURING) / interval);
+		int last = (int) ((windows.getTo(Phase.DURING) + interval - 1) / interval);
+
+		long completed = 0;
+		for (int bucket = first; bucket < last; bucket++) {
+			completed += getCount(type, bucket);
+		}
+
+		double expected = getAverageThroughput(type, windows, Phase.PRE) * (last - first) * interval
+				/ TimeUnit.SECONDS.toMicros(1);
+		return Math.max(0, Math.round(expected - completed));
+	}
+
+	/**
+	 * Writes the timeline as a tab-separated file, with one row per interval and one column per type of worker.
+	 */
+	public void write(File file) throws IOException {
+		try (Writer writer = new FileWriter(file)) {
+			writer.write("Time");
+			for (RecordType type : RecordType.values()) {
+				if (contains(type)) {
+					writer.write("\t" + type.getLabel());
+				}
+			}
+			writer.write("\n");
+
+			for (int bucket = 0; bucket < buckets; bucket++) {
+				writer.write(Long.toString(TimeUnit.MICROSECONDS.toMillis(bucket * interval)));
+				for (RecordType type : RecordType.values()) {
+					if (contains(type)) {
+						writer.write("\t" + getCount(type, bucket));
+					}
+				}
+				writer.write("\n");
+			}
+		}
+	}
+
+}
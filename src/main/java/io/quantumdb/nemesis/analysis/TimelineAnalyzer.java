@@ -0,0 +1,32 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.IOException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds the multi-resolution timeline of every scenario in the specified folder, and writes it together with an
+ * interactive viewer into a timeline folder inside the folder of the scenario. Open timeline/viewer.html in a
+ * browser to zoom and pan through the run.
+ */
+@Slf4j
+public class TimelineAnalyzer {
+
+	public static void main(String[] args) throws IOException {
+		File folder = new File(args[0]);
+		File[] scenarios = folder.listFiles(file -> file.isDirectory() && !file.getName().startsWith(".") && !file.getName().startsWith("_") && !file.getName().equals("graphs"));
+		if (scenarios == null) {
+			log.warn("Not a folder: {}", folder.getAbsolutePath());
+			return;
+		}
+
+		for (File scenario : scenarios) {
+			TimelinePyramid pyramid = TimelinePyramid.of(scenario);
+			File output = new File(scenario, TimelinePyramid.FOLDER_NAME);
+			pyramid.write(output, PhaseWindows.of(scenario));
+			log.info("Written timeline: {}", output.getAbsolutePath());
+		}
+	}
+
+}
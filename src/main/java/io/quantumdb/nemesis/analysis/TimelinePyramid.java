@@ -0,0 +1,230 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.quantumdb.nemesis.Grapher;
+import io.quantumdb.nemesis.logs.Logs;
+import io.quantumdb.nemesis.logs.RecordHandler;
+import io.quantumdb.nemesis.profiler.RecordType;
+
+/**
+ * A pyramid of pre-aggregated time buckets per type of record, where every level is ten times coarser than the
+ * previous one (1 ms, 10 ms, 100 ms and 1 s). Every bucket holds the number of requests which started in it, and the
+ * sum and maximum of their durations, all of which can be merged exactly into the buckets of the next level.
+ *
+ * The pyramid is written as a set of small JavaScript files (tiles) next to an HTML viewer, which only loads the
+ * tiles of the level matching the visible time range. This keeps the viewer responsive regardless of the length of
+ * the run, and allows opening it directly from disk without a web server. The finest level is kept in memory while
+ * building the pyramid, which takes 16 bytes per type of record per bucket. To bound this, the finest level is merged
+ * into the next one as soon as it would exceed MAX_BUCKETS buckets, so long runs are written without their finest
+ * levels.
+ */
+public class TimelinePyramid implements RecordHandler {
+
+	public static final String FOLDER_NAME = "timeline";
+
+	private static final String VIEWER_RESOURCE = "/timeline-viewer.html";
+	private static final String VIEWER_FILE = "viewer.html";
+
+	private static final long BASE_INTERVAL = TimeUnit.MILLISECONDS.toMicros(1);
+	private static final int LEVELS = 4;
+	private static final int FACTOR = 10;
+	private static final int TILE_SIZE = 1000;
+	private static final int MAX_BUCKETS = 1 << 20;
+
+	private final int[][] counts = new int[RecordType.values().length][];
+	private final long[][] sums = new long[RecordType.values().length][];
+	private final int[][] maxima = new int[RecordType.values().length][];
+	private long interval = BASE_INTERVAL;
+	private int levels = LEVELS;
+	private int buckets;
+
+	public static TimelinePyramid of(File scenario) throws IOException {
+		TimelinePyramid pyramid = new TimelinePyramid();
+		for (File file : Logs.listWorkerLogs(scenario)) {
+			Logs.read(file, pyramid);
+		}
+		return pyramid;
+	}
+
+	@Override
+	public boolean handle(RecordType type, long start, long end) {
+		if (type == RecordType.OPERATION || start < 0) {
+			return true;
+		}
+
+		while (start / interval >= MAX_BUCKETS && levels > 1) {
+			dropFinestLevel();
+		}
+
+		int bucket = (int) (start / interval);
+		int index = type.ordinal();
+		if (counts[index] == null || bucket >= counts[index].length) {
+			int length = Math.max(bucket + 1, Math.max(buckets, 1024) * 2);
+			if (bucket < MAX_BUCKETS) {
+				length = Math.min(length, MAX_BUCKETS);
+			}
+			counts[index] = Arrays.copyOf(counts[index] == null ? new int[0] : counts[index], length);
+			sums[index] = Arrays.copyOf(sums[index] == null ? new long[0] : sums[index], length);
+			maxima[index] = Arrays.copyOf(maxima[index] == null ? new int[0] : maxima[index], length);
+		}
+
+		long duration = Math.max(0, end - start);
+		counts[index][bucket]++;
+		sums[index][bucket] += duration;
+		maxima[index][bucket] = (int) Math.max(maxima[index][bucket], Math.min(Integer.MAX_VALUE, duration));
+		buckets = Math.max(buckets, bucket + 1);
+		return true;
+	}
+
+	/**
+	 * Merges the buckets of the finest level in memory into the buckets of the next level, which then becomes the
+	 * finest level.
+	 */
+	private void dropFinestLevel() {
+		for (int index = 0; index < counts.length; index++) {
+			if (counts[index] != null) {
+				counts[index] = merge(counts[index], buckets, false);
+				sums[index] = merge(sums[index], buckets);
+				maxima[index] = merge(maxima[index], buckets, true);
+			}
+		}
+		buckets = (buckets + FACTOR - 1) / FACTOR;
+		interval *= FACTOR;
+		levels--;
+	}
+
+	/**
+	 * Writes all levels of the pyramid and the viewer into the specified folder.
+	 *
+	 * @param windows The phase windows of the scenario, used to highlight the operation in the viewer.
+	 */
+	public void write(File folder, PhaseWindows windows) throws IOException {
+		folder.mkdirs();
+
+		List<RecordType> types = Arrays.stream(RecordType.values())
+				.filter(type -> counts[type.ordinal()] != null)
+				.collect(Collectors.toList());
+
+		int[][] levelCounts = new int[types.size()][];
+		long[][] levelSums = new long[types.size()][];
+		int[][] levelMaxima = new int[types.size()][];
+		for (int i = 0; i < types.size(); i++) {
+			int index = types.get(i).ordinal();
+			levelCounts[i] = Arrays.copyOf(counts[index], buckets);
+			levelSums[i] = Arrays.copyOf(sums[index], buckets);
+			levelMaxima[i] = Arrays.copyOf(maxima[index], buckets);
+		}
+
+		long levelInterval = interval;
+		int levelBuckets = buckets;
+		int[] bucketsPerLevel = new int[levels];
+		long[] intervals = new long[levels];
+
+		for (int level = 0; level < levels; level++) {
+			bucketsPerLevel[level] = levelBuckets;
+			intervals[level] = levelInterval;
+			writeLevel(folder, level, types, levelBuckets, levelCounts, levelSums, levelMaxima);
+
+			for (int i = 0; i < types.size(); i++) {
+				levelCounts[i] = merge(levelCounts[i], levelBuckets, false);
+				levelSums[i] = merge(levelSums[i], levelBuckets);
+				levelMaxima[i] = merge(levelMaxima[i], levelBuckets, true);
+			}
+
+			levelBuckets = (levelBuckets + FACTOR - 1) / FACTOR;
+			levelInterval *= FACTOR;
+		}
+
+		writeIndex(folder, types, intervals, bucketsPerLevel, windows);
+
+		try (InputStream viewer = TimelinePyramid.class.getResourceAsStream(VIEWER_RESOURCE)) {
+			if (viewer == null) {
+				throw new IOException("Viewer resource is missing: " + VIEWER_RESOURCE);
+			}
+			Files.copy(viewer, new File(folder, VIEWER_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private void writeLevel(File folder, int level, List<RecordType> types, int levelBuckets, int[][] levelCounts,
+			long[][] levelSums, int[][] levelMaxima) throws IOException {
+
+		for (int tile = 0; tile * TILE_SIZE < levelBuckets; tile++) {
+			int from = tile * TILE_SIZE;
+			int to = Math.min(levelBuckets, from + TILE_SIZE);
+
+			File file = new File(folder, "level-" + level + "-" + tile + ".js");
+			try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+				writer.write("Nemesis.tile(" + level + ", " + tile + ", {");
+				for (int i = 0; i < types.size(); i++) {
+					writer.write((i > 0 ? "," : "") + "\n\"" + types.get(i).getLabel() + "\": [");
+
+					// Per bucket: count, mean and max duration in microseconds.
+					for (int bucket = from; bucket < to; bucket++) {
+						int count = levelCounts[i][bucket];
+						long mean = count == 0 ? 0 : levelSums[i][bucket] / count;
+						writer.write((bucket > from ? "," : "") + count + "," + mean + "," + levelMaxima[i][bucket]);
+					}
+					writer.write("]");
+				}
+				writer.write("\n});\n");
+			}
+		}
+	}
+
+	private void writeIndex(File folder, List<RecordType> types, long[] intervals, int[] bucketsPerLevel,
+			PhaseWindows windows) throws IOException {
+
+		try (Writer writer = new FileWriter(new File(folder, "index.js"))) {
+			writer.write("Nemesis.index({\n");
+			writer.write("\"intervals\": " + Arrays.toString(intervals) + ",\n");
+			writer.write("\"buckets\": " + Arrays.toString(bucketsPerLevel) + ",\n");
+			writer.write("\"tileSize\": " + TILE_SIZE + ",\n");
+			writer.write("\"types\": [" + types.stream()
+					.map(type -> "\"" + type.getLabel() + "\"")
+					.collect(Collectors.joining(", ")) + "],\n");
+			writer.write("\"colors\": [" + types.stream()
+					.map(type -> "\"" + toHex(Grapher.getColor(type)) + "\"")
+					.collect(Collectors.joining(", ")) + "],\n");
+			writer.write("\"operation\": [" + windows.getFrom(Phase.DURING) + ", " + windows.getTo(Phase.DURING) + "]\n");
+			writer.write("});\n");
+		}
+	}
+
+	/**
+	 * Merges every FACTOR buckets into one bucket of the next level, by either adding them up or taking their maximum.
+	 */
+	private static int[] merge(int[] values, int length, boolean maximum) {
+		int[] merged = new int[(length + FACTOR - 1) / FACTOR];
+		for (int bucket = 0; bucket < Math.min(length, values.length); bucket++) {
+			int target = bucket / FACTOR;
+			merged[target] = maximum ? Math.max(merged[target], values[bucket]) : merged[target] + values[bucket];
+		}
+		return merged;
+	}
+
+	private static long[] merge(long[] values, int length) {
+		long[] merged = new long[(length + FACTOR - 1) / FACTOR];
+		for (int bucket = 0; bucket < Math.min(length, values.length); bucket++) {
+			merged[bucket / FACTOR] += values[bucket];
+		}
+		return merged;
+	}
+
+	private static String toHex(Color color) {
+		return String.format("#%02x%02x%02x", color.getRed(), color.getGreen(), color.getBlue());
+	}
+
+}
@@ -0,0 +1,117 @@
+package io.quantumdb.nemesis.logs;
+
+import static io.quantumdb.nemesis.logs.BinaryLogWriter.HEADER_SIZE;
+import static io.quantumdb.nemesis.logs.BinaryLogWriter.MAGIC;
+import static io.quantumdb.nemesis.logs.BinaryLogWriter.RECORD_SIZE;
+import static io.quantumdb.nemesis.logs.BinaryLogWriter.VERSION;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import io.quantumdb.nemesis.profiler.RecordType;
+
+/**
+ * Reads logs written by the BinaryLogWriter through memory-mapped windows of the file, without allocating any
+ * objects per record.
+ */
+public class BinaryLogReader {
+
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+	// The largest multiple of the record size which fits in a single mapping.
+	private static final long WINDOW_SIZE = (Integer.MAX_VALUE / RECORD_SIZE) * (long) RECORD_SIZE;
+
+	/**
+	 * A range of whole records of a binary log.
+	 */
+	public static class Chunk implements LogChunk {
+
+		private final File file;
+		private final long from;
+		private final long records;
+
+		private Chunk(File file, long from, long records) {
+			this.file = file;
+			this.from = from;
+			this.records = records;
+		}
+
+		@Override
+		public boolean read(RecordHandler handler) throws IOException {
+			try (RandomAccessFile accessor = new RandomAccessFile(file, "r");
+					FileChannel channel = accessor.getChannel()) {
+
+				long remaining = records;
+				long position = from;
+
+				while (remaining > 0) {
+					long length = Math.min(WINDOW_SIZE, remaining * RECORD_SIZE);
+					MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, position, length);
+
+					while (buffer.hasRemaining()) {
+						RecordType type = RecordType.fromId(buffer.get());
+						long start = buffer.getLong();
+						long end = start + buffer.getLong();
+
+						if (!handler.handle(type, start, end)) {
+							return false;
+						}
+					}
+
+					position += length;
+					remaining -= length / RECORD_SIZE;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	public static void read(File file, RecordHandler handler) throws IOException {
+		for (Chunk chunk : split(file, DEFAULT_CHUNK_SIZE)) {
+			if (!chunk.read(handler)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Divides the specified binary log into chunks of at most the specified size, which can be read independently.
+	 */
+	public static List<Chunk> split(File file, int chunkSize) throws IOException {
+		long size;
+		try (RandomAccessFile accessor = new RandomAccessFile(file, "r");
+				FileChannel channel = accessor.getChannel()) {
+
+			size = channel.size();
+			if (size < HEADER_SIZE) {
+				throw new IOException("Not a binary log, header is missing: " + file);
+			}
+
+			MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Not a binary log, magic number does not match: " + file);
+			}
+			byte version = header.get();
+			if (version != VERSION) {
+				throw new IOException("Unsupported binary log version: " + version + " in: " + file);
+			}
+		}
+
+		long records = (size - HEADER_SIZE) / RECORD_SIZE;
+		List<Chunk> chunks = Lists.newArrayList();
+		long recordsPerChunk = Math.max(1, chunkSize / RECORD_SIZE);
+		for (long first = 0; first < records; first += recordsPerChunk) {
+			long count = Math.min(recordsPerChunk, records - first);
+			chunks.add(new Chunk(file, HEADER_SIZE + first * RECORD_SIZE, count));
+		}
+		return chunks;
+	}
+
+}
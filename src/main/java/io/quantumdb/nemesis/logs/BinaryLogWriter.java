@@ -0,0 +1,55 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import io.quantumdb.nemesis.profiler.RecordType;
+
+/**
+ * Writes records in the binary log format. Every log starts with a header consisting of the magic number and the
+ * format version, followed by fixed-width records of {@link #RECORD_SIZE} bytes each:
+ *
+ * <ul>
+ *     <li>1 byte: the id of the RecordType.</li>
+ *     <li>8 bytes: the start of the record in microseconds since the start of the Session.</li>
+ *     <li>8 bytes: the end of the record in microseconds, relative to its own start.</li>
+ * </ul>
+ *
+ * Since every record is self-contained, a log can be read from any record onwards.
+ */
+public class BinaryLogWriter implements Closeable {
+
+	public static final String EXTENSION = ".bin";
+
+	static final int MAGIC = 0x4E4D5342; // "NMSB"
+	static final byte VERSION = 1;
+	static final int HEADER_SIZE = 5;
+	static final int RECORD_SIZE = 17;
+
+	private final DataOutputStream output;
+
+	public BinaryLogWriter(File file, int bufferSize) throws IOException {
+		this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), bufferSize));
+		output.writeInt(MAGIC);
+		output.writeByte(VERSION);
+	}
+
+	/**
+	 * Appends a record to the log, with start and end expressed in microseconds since the start of the Session.
+	 */
+	public void write(RecordType type, long start, long end) throws IOException {
+		output.writeByte(type.getId());
+		output.writeLong(start);
+		output.writeLong(end - start);
+	}
+
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+
+}
@@ -0,0 +1,17 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.IOException;
+
+/**
+ * A part of a worker log which can be read independently of the other parts of the same log.
+ */
+public interface LogChunk {
+
+	/**
+	 * Passes every record of this chunk to the specified handler, in the order in which they appear in the log.
+	 *
+	 * @return False if the handler requested to stop reading, true otherwise.
+	 */
+	boolean read(RecordHandler handler) throws IOException;
+
+}
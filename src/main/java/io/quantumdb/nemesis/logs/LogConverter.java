@@ -0,0 +1,82 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts worker logs between the text and binary formats. Usage:
+ *
+ * <pre>
+ *     LogConverter to-binary|to-text &lt;file or folder&gt;...
+ * </pre>
+ *
+ * Folders are searched recursively. The converted log is written next to the original, with the other extension.
+ */
+@Slf4j
+public class LogConverter {
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || !(args[0].equals("to-binary") || args[0].equals("to-text"))) {
+			System.err.println("Usage: LogConverter to-binary|to-text <file or folder>...");
+			return;
+		}
+
+		boolean toBinary = args[0].equals("to-binary");
+		for (int i = 1; i < args.length; i++) {
+			convert(new File(args[i]), toBinary);
+		}
+	}
+
+	private static void convert(File file, boolean toBinary) throws IOException {
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					convert(child, toBinary);
+				}
+			}
+			return;
+		}
+
+		if (!Logs.isWorkerLog(file)) {
+			return;
+		}
+
+		String name = file.getName();
+		String baseName = Logs.getBaseName(file);
+		if (toBinary && name.endsWith(TextLog.EXTENSION)) {
+			toBinary(file, new File(file.getParentFile(), baseName + BinaryLogWriter.EXTENSION));
+		}
+		else if (!toBinary && name.endsWith(BinaryLogWriter.EXTENSION)) {
+			toText(file, new File(file.getParentFile(), baseName + TextLog.EXTENSION));
+		}
+	}
+
+	public static void toBinary(File input, File output) throws IOException {
+		log.info("Converting: {} to: {}", input, output);
+		try (BinaryLogWriter writer = new BinaryLogWriter(output, BUFFER_SIZE)) {
+			TextLog.read(input, (type, start, end) -> {
+				writer.write(type, start, end);
+				return true;
+			});
+		}
+	}
+
+	public static void toText(File input, File output) throws IOException {
+		log.info("Converting: {} to: {}", input, output);
+		try (Writer writer = new BufferedWriter(new FileWriter(output), BUFFER_SIZE)) {
+			BinaryLogReader.read(input, (type, start, end) -> {
+				TextLog.write(writer, type, start, end);
+				return true;
+			});
+		}
+	}
+
+}
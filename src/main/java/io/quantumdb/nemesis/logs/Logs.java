@@ -0,0 +1,78 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Utility methods for locating and reading the logs of a scenario, regardless of the format they were written in.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class Logs {
+
+	public static final String OPERATION_LOG = "OPERATION.log";
+
+	public static boolean isWorkerLog(File file) {
+		String name = file.getName();
+		if (name.equals(OPERATION_LOG)) {
+			return false;
+		}
+		return name.endsWith(TextLog.EXTENSION) || name.endsWith(BinaryLogWriter.EXTENSION);
+	}
+
+	/**
+	 * @return The worker logs in the specified scenario folder, sorted by name. When the log of a worker exists in both
+	 * formats (for instance after running the LogConverter), only the binary log is returned, so that no record is
+	 * read twice.
+	 */
+	public static File[] listWorkerLogs(File scenario) {
+		File[] files = scenario.listFiles(Logs::isWorkerLog);
+		if (files == null) {
+			return new File[0];
+		}
+
+		Map<String, File> logs = Maps.newTreeMap();
+		for (File file : files) {
+			String baseName = getBaseName(file);
+			if (!logs.containsKey(baseName) || file.getName().endsWith(BinaryLogWriter.EXTENSION)) {
+				logs.put(baseName, file);
+			}
+		}
+		return logs.values().toArray(new File[logs.size()]);
+	}
+
+	/**
+	 * @return The name of the log without its extension, which identifies the worker that wrote it.
+	 */
+	public static String getBaseName(File file) {
+		String name = file.getName();
+		int extension = name.lastIndexOf('.');
+		return extension < 0 ? name : name.substring(0, extension);
+	}
+
+	/**
+	 * Divides the specified worker log into chunks of roughly the specified size, which can be read independently.
+	 */
+	public static List<LogChunk> split(File file, int chunkSize) throws IOException {
+		if (file.getName().endsWith(BinaryLogWriter.EXTENSION)) {
+			return Lists.newArrayList(BinaryLogReader.split(file, chunkSize));
+		}
+		return Lists.newArrayList(TextLog.split(file, chunkSize));
+	}
+
+	public static void read(File file, RecordHandler handler) throws IOException {
+		if (file.getName().endsWith(BinaryLogWriter.EXTENSION)) {
+			BinaryLogReader.read(file, handler);
+		}
+		else {
+			TextLog.read(file, handler);
+		}
+	}
+
+}
@@ -0,0 +1,20 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.IOException;
+
+import io.quantumdb.nemesis.profiler.RecordType;
+
+@FunctionalInterface
+public interface RecordHandler {
+
+	/**
+	 * Handles a single record read from a log.
+	 *
+	 * @param type The type of the record.
+	 * @param start The start of the timed action in microseconds since the start of the Session.
+	 * @param end The end of the timed action in microseconds since the start of the Session.
+	 * @return True to continue reading, false to stop reading this log.
+	 */
+	boolean handle(RecordType type, long start, long end) throws IOException;
+
+}
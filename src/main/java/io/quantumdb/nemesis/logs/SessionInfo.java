@@ -0,0 +1,68 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Properties;
+
+import lombok.Data;
+
+/**
+ * Describes how a scenario was recorded, so that its logs can be analyzed without hard-coding the settings of the
+ * Session which produced them. Stored as a properties file in the folder of the scenario.
+ */
+@Data
+public class SessionInfo {
+
+	public static final String FILE_NAME = "session.properties";
+
+	// Used for scenarios which were recorded before the session properties were written.
+	private static final long DEFAULT_TIMEOUT = 60_000;
+
+	private String database;
+	private String operation;
+	private long startupTimeout = DEFAULT_TIMEOUT;
+	private long teardownTimeout = DEFAULT_TIMEOUT;
+
+	/**
+	 * Reads the session properties of the specified scenario, falling back to the defaults for any missing value.
+	 */
+	public static SessionInfo read(File scenario) throws IOException {
+		SessionInfo info = new SessionInfo();
+		File file = new File(scenario, FILE_NAME);
+		if (!file.exists()) {
+			return info;
+		}
+
+		Properties properties = new Properties();
+		try (Reader reader = new FileReader(file)) {
+			properties.load(reader);
+		}
+
+		info.setDatabase(properties.getProperty("database"));
+		info.setOperation(properties.getProperty("operation"));
+		info.setStartupTimeout(Long.parseLong(properties.getProperty("startupTimeout", "" + DEFAULT_TIMEOUT)));
+		info.setTeardownTimeout(Long.parseLong(properties.getProperty("teardownTimeout", "" + DEFAULT_TIMEOUT)));
+		return info;
+	}
+
+	public void write(File scenario) throws IOException {
+		Properties properties = new Properties();
+		if (database != null) {
+			properties.setProperty("database", database);
+		}
+		if (operation != null) {
+			properties.setProperty("operation", operation);
+		}
+		properties.setProperty("startupTimeout", Long.toString(startupTimeout));
+		properties.setProperty("teardownTimeout", Long.toString(teardownTimeout));
+
+		try (Writer writer = new FileWriter(new File(scenario, FILE_NAME))) {
+			properties.store(writer, null);
+		}
+	}
+
+}
@@ -0,0 +1,204 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import io.quantumdb.nemesis.profiler.RecordType;
+
+/**
+ * Reads and writes the tab-separated text log format, in which every line holds the label of the record type, and
+ * the start, end and duration of the record in milliseconds. Logs are read through memory-mapped chunks which are
+ * parsed byte by byte, without allocating any objects per line. Since every chunk can be parsed on its own, a large
+ * log can be split into chunks which are parsed in parallel.
+ */
+public class TextLog {
+
+	public static final String EXTENSION = ".log";
+
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+	// The number of bytes a chunk may read beyond its end, in order to complete its last line.
+	private static final int MAX_LINE_LENGTH = 4096;
+
+	private static final byte[][] LABELS = new byte[RecordType.values().length][];
+
+	static {
+		for (RecordType type : RecordType.values()) {
+			LABELS[type.ordinal()] = type.getLabel().getBytes(StandardCharsets.US_ASCII);
+		}
+	}
+
+	/**
+	 * A range of a text log. A chunk owns every line which starts within its range, and will read past the end of
+	 * its range in order to complete its last line.
+	 */
+	public static class Chunk implements LogChunk {
+
+		private final File file;
+		private final long from;
+		private final long to;
+
+		private Chunk(File file, long from, long to) {
+			this.file = file;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean read(RecordHandler handler) throws IOException {
+			try (RandomAccessFile accessor = new RandomAccessFile(file, "r");
+					FileChannel channel = accessor.getChannel()) {
+
+				long size = channel.size();
+				long mapFrom = from == 0 ? 0 : from - 1;
+				long mapTo = Math.min(size, to + MAX_LINE_LENGTH);
+				if (mapFrom >= mapTo) {
+					return true;
+				}
+
+				MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, mapFrom, mapTo - mapFrom);
+				int limit = (int) (Math.min(to, size) - mapFrom);
+				int position = 0;
+
+				// The line which straddles the start of this chunk belongs to the previous chunk.
+				if (from > 0) {
+					while (position < buffer.limit() && buffer.get(position) != '\n') {
+						position++;
+					}
+					position++;
+				}
+
+				while (position < limit) {
+					int lineEnd = position;
+					while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') {
+						lineEnd++;
+					}
+					if (lineEnd == buffer.limit() && mapTo < size) {
+						throw new IOException("Line at offset " + (mapFrom + position) + " exceeds " + MAX_LINE_LENGTH
+								+ " bytes in: " + file);
+					}
+
+					if (!parseLine(buffer, position, lineEnd, handler)) {
+						return false;
+					}
+					position = lineEnd + 1;
+				}
+			}
+			return true;
+		}
+
+		private boolean parseLine(MappedByteBuffer buffer, int from, int to, RecordHandler handler)
+				throws IOException {
+
+			if (to > from && buffer.get(to - 1) == '\r') {
+				to--;
+			}
+			if (from == to) {
+				return true;
+			}
+
+			int first = indexOf(buffer, '\t', from, to);
+			int second = indexOf(buffer, '\t', first + 1, to);
+			int third = indexOf(buffer, '\t', second + 1, to);
+			if (first < 0 || second < 0) {
+				throw new IOException("Malformed line at offset " + from + " of chunk starting at " + this.from
+						+ " in: " + file);
+			}
+
+			RecordType type = parseType(buffer, from, first);
+			long start = parseLong(buffer, first + 1, second);
+			long end = parseLong(buffer, second + 1, third < 0 ? to : third);
+
+			return handler.handle(type, TimeUnit.MILLISECONDS.toMicros(start), TimeUnit.MILLISECONDS.toMicros(end));
+		}
+
+		private RecordType parseType(MappedByteBuffer buffer, int from, int to) {
+			for (RecordType type : RecordType.values()) {
+				byte[] label = LABELS[type.ordinal()];
+				if (label.length != to - from) {
+					continue;
+				}
+
+				boolean matches = true;
+				for (int i = 0; i < label.length && matches; i++) {
+					matches = buffer.get(from + i) == label[i];
+				}
+				if (matches) {
+					return type;
+				}
+			}
+
+			byte[] label = new byte[to - from];
+			for (int i = 0; i < label.length; i++) {
+				label[i] = buffer.get(from + i);
+			}
+			throw new IllegalArgumentException("Unknown record type: " + new String(label, StandardCharsets.US_ASCII));
+		}
+
+		private static long parseLong(MappedByteBuffer buffer, int from, int to) {
+			boolean negative = from < to && buffer.get(from) == '-';
+			long value = 0;
+			for (int i = negative ? from + 1 : from; i < to; i++) {
+				int digit = buffer.get(i) - '0';
+				if (digit < 0 || digit > 9) {
+					throw new NumberFormatException("Invalid digit at offset " + i);
+				}
+				value = value * 10 + digit;
+			}
+			return negative ? -value : value;
+		}
+
+		private static int indexOf(MappedByteBuffer buffer, char value, int from, int to) {
+			for (int i = from; i < to; i++) {
+				if (buffer.get(i) == value) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+	}
+
+	public static void read(File file, RecordHandler handler) throws IOException {
+		for (Chunk chunk : split(file, DEFAULT_CHUNK_SIZE)) {
+			if (!chunk.read(handler)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Divides the specified text log into chunks of roughly the specified size, which can be read independently.
+	 */
+	public static List<Chunk> split(File file, int chunkSize) {
+		List<Chunk> chunks = Lists.newArrayList();
+		long size = file.length();
+		for (long from = 0; from < size; from += chunkSize) {
+			chunks.add(new Chunk(file, from, Math.min(size, from + chunkSize)));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Writes a single record, with start and end expressed in microseconds since the start of the Session.
+	 */
+	public static void write(Writer writer, RecordType type, long start, long end) throws IOException {
+		long startMillis = TimeUnit.MICROSECONDS.toMillis(start);
+		long endMillis = TimeUnit.MICROSECONDS.toMillis(end);
+		writer.write(type.getLabel() + "\t" + startMillis + "\t" + endMillis + "\t" + (endMillis - startMillis) + "\n");
+	}
+
+	static byte[] getLabel(RecordType type) {
+		return LABELS[type.ordinal()];
+	}
+
+}
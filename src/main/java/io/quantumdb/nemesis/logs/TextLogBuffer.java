@@ -0,0 +1,92 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import io.quantumdb.nemesis.profiler.RecordType;
+
+/**
+ * An in-memory buffer of records in the text log format. Records are formatted directly into a byte array, without
+ * allocating any Strings, so that many buffers can be filled in parallel and written out in order.
+ */
+public class TextLogBuffer {
+
+	private static final int INITIAL_CAPACITY = 8192;
+
+	// Enough room for the longest label, three longs, and the separators.
+	private static final int MAX_RECORD_SIZE = 128;
+
+	private byte[] bytes = new byte[INITIAL_CAPACITY];
+	private int size;
+
+	/**
+	 * Appends a single record, with start and end expressed in microseconds since the start of the Session.
+	 */
+	public void append(RecordType type, long start, long end) {
+		long startMillis = TimeUnit.MICROSECONDS.toMillis(start);
+		long endMillis = TimeUnit.MICROSECONDS.toMillis(end);
+
+		ensureCapacity(size + MAX_RECORD_SIZE);
+
+		byte[] label = TextLog.getLabel(type);
+		System.arraycopy(label, 0, bytes, size, label.length);
+		size += label.length;
+
+		bytes[size++] = '\t';
+		appendLong(startMillis);
+		bytes[size++] = '\t';
+		appendLong(endMillis);
+		bytes[size++] = '\t';
+		appendLong(endMillis - startMillis);
+		bytes[size++] = '\n';
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Discards all records in this buffer, while retaining its capacity.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	public void writeTo(OutputStream output) throws IOException {
+		output.write(bytes, 0, size);
+	}
+
+	private void appendLong(long value) {
+		if (value == Long.MIN_VALUE) {
+			for (char c : Long.toString(value).toCharArray()) {
+				bytes[size++] = (byte) c;
+			}
+			return;
+		}
+
+		if (value < 0) {
+			bytes[size++] = '-';
+			value = -value;
+		}
+
+		int digits = 1;
+		for (long remainder = value / 10; remainder > 0; remainder /= 10) {
+			digits++;
+		}
+
+		for (int i = size + digits - 1; i >= size; i--) {
+			bytes[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		size += digits;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+		}
+	}
+
+}
@@ -1,44 +1,76 @@
 package io.quantumdb.nemesis.profiler;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.text.DecimalFormat;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import io.quantumdb.nemesis.structure.ColumnDefinition;
 import io.quantumdb.nemesis.structure.Database;
 import io.quantumdb.nemesis.structure.DatabaseCredentials;
+import io.quantumdb.nemesis.structure.Table;
 import io.quantumdb.nemesis.structure.TableDefinition;
 import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
 
 @Slf4j
 public class DatabaseStructure {
 
-	private static final int BATCH_SIZE = 10_000;
 	private static final DecimalFormat FORMAT = new DecimalFormat("##0");
-	private static final String QUERY = "INSERT INTO users (name) VALUES (?);";
+	private static final String COPY_QUERY = "COPY users (id, name) FROM STDIN";
+	private static final String LOAD_DATA_QUERY = "LOAD DATA LOCAL INFILE 'users.tsv' INTO TABLE users "
+			+ "CHARACTER SET utf8 (id, name)";
+	private static final int LOAD_DATA_ROWS = 1_000_000;
+	private static final int COPY_CHUNK_ROWS = 100_000;
+	private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+	private static final int MIN_RANGE_SIZE = 10_000;
+	private static final long DEFAULT_SEED = 42;
+	private static final String INDEX_MEMORY = "1GB";
+	private static final String SNAPSHOT_SUFFIX = "_snapshot";
+	private static final String SNAPSHOT_TABLE = "users" + SNAPSHOT_SUFFIX;
+	private static final String RESTORING_SUFFIX = "_restoring";
+	private static final String REPLACED_SUFFIX = "_replaced";
+	private static final String MAINTENANCE_DATABASE = "postgres";
 
 	private final Database.Type type;
 	private final DatabaseCredentials credentials;
 
+	private boolean relaxChecks = true;
+	private boolean deferIndexes;
+	private int threads;
+	private long seed = DEFAULT_SEED;
+
 	public DatabaseStructure(Database.Type type, DatabaseCredentials credentials) {
 		this.type = type;
 		this.credentials = credentials;
+		this.threads = getDefaultThreads(type);
 	}
 
+	/**
+	 * Creates the "users" table, fills it with the specified number of rows, and updates the statistics of the table
+	 * so that every scenario starts from the same query plans. When indexes are deferred, they are built after the
+	 * rows have been loaded.
+	 */
 	public void prepareStructureAndRows(int rows) throws SQLException, InterruptedException {
 		prepareStructure();
 		prepareRows(rows);
+		if (deferIndexes) {
+			buildIndexes();
+		}
+		analyze();
 	}
 
 	public void prepareStructure() throws SQLException {
@@ -48,7 +80,7 @@ public class DatabaseStructure {
 				.withColumn(new ColumnDefinition("id", "bigint")
 						.setNullable(false)
 						.setAutoIncrement(true)
-						.setIdentity(true))
+						.setIdentity(!isPrimaryKeyDeferred()))
 				.withColumn(new ColumnDefinition("name", "varchar(255)")
 						.setNullable(false));
 
@@ -60,6 +92,84 @@ public class DatabaseStructure {
 		log.info("Table created");
 	}
 
+	/**
+	 * Builds the indexes which were deferred by prepareStructure, so they are built in one pass over the loaded rows
+	 * instead of being maintained for every row. Every index is built over its own connection, in parallel where the
+	 * database allows for it.
+	 */
+	public void buildIndexes() throws SQLException, InterruptedException {
+		List<String> statements = getDeferredIndexes();
+		if (statements.isEmpty()) {
+			return;
+		}
+
+		log.info("Building indexes...");
+		long start = System.currentTimeMillis();
+
+		ExecutorService executor = Executors.newFixedThreadPool(statements.size());
+		try {
+			List<Future<Void>> futures = Lists.newArrayList();
+			for (String statement : statements) {
+				futures.add(executor.submit(() -> {
+					Database backend = type.createBackend();
+					try {
+						backend.connect(credentials);
+						if (type == Database.Type.POSTGRESQL) {
+							backend.query("SET maintenance_work_mem = '" + INDEX_MEMORY + "'");
+						}
+						backend.query(statement);
+					}
+					finally {
+						close(backend);
+					}
+					return null;
+				}));
+			}
+
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				}
+				catch (ExecutionException e) {
+					if (e.getCause() instanceof SQLException) {
+						throw (SQLException) e.getCause();
+					}
+					throw new SQLException(e.getCause());
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.HOURS);
+		}
+
+		log.info("Indexes built in " + FORMAT.format((System.currentTimeMillis() - start) / 1000.0) + " seconds");
+	}
+
+	/**
+	 * Updates the statistics of the "users" table. On PostgreSQL the table is vacuumed as well, which sets the hint
+	 * bits and visibility map for all loaded rows, instead of leaving that to the first scenario touching them.
+	 */
+	public void analyze() throws SQLException {
+		log.info("Updating statistics...");
+
+		Database backend = type.createBackend();
+		backend.connect(credentials);
+		try {
+			if (type == Database.Type.POSTGRESQL) {
+				backend.query("VACUUM ANALYZE users");
+			}
+			else {
+				backend.query("ANALYZE TABLE users");
+			}
+		}
+		finally {
+			backend.close();
+		}
+
+		log.info("Statistics updated");
+	}
+
 	public void dropStructure() throws SQLException {
 		log.info("Dropping table...");
 
@@ -71,106 +181,426 @@ public class DatabaseStructure {
 		log.info("Table dropped");
 	}
 	
-	public void prepareRows(int rows) throws InterruptedException {
-		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(5);
+	/**
+	 * Takes a snapshot of the prepared dataset, replacing any previous snapshot. On PostgreSQL the entire database is
+	 * copied into a new database at the file level, on MySQL the "users" table is copied into a separate table.
+	 */
+	public void createSnapshot() throws SQLException {
+		log.info("Creating snapshot...");
+		dropSnapshot();
 
-		try {
-			log.info("Filling table...");
+		if (type == Database.Type.POSTGRESQL) {
+			Database maintenance = connectToMaintenanceDatabase();
+			try {
+				terminateConnections(maintenance, credentials.getDatabase());
+				maintenance.query("CREATE DATABASE " + quote(getSnapshotDatabase()) + " TEMPLATE "
+						+ quote(credentials.getDatabase()));
+			}
+			finally {
+				maintenance.close();
+			}
+		}
+		else {
+			Database backend = type.createBackend();
+			backend.connect(credentials);
+			try {
+				backend.query("CREATE TABLE " + SNAPSHOT_TABLE + " LIKE users");
+				copyTable(backend, "users", SNAPSHOT_TABLE);
+			}
+			finally {
+				backend.close();
+			}
+		}
 
-			AtomicLong lastTimestamp = new AtomicLong(System.currentTimeMillis());
-			AtomicInteger counter = new AtomicInteger();
+		log.info("Snapshot created");
+	}
 
-			int numberOfExecutors = (int) Math.min(Math.ceil(rows / (double) BATCH_SIZE), executor.getCorePoolSize());
+	/**
+	 * Replaces the dataset with a pristine copy of the snapshot taken by createSnapshot, discarding every change made
+	 * since, including any tables, indexes and triggers created by operations. The copy is completed before the
+	 * current dataset is dropped and replaced by it, so a failing restore never leaves the database without data. On
+	 * PostgreSQL the database is recreated from the snapshot (including its statistics), which terminates all
+	 * connections to it. On MySQL every row of the snapshot is copied again, which takes about as long as loading
+	 * the rows did.
+	 */
+	public void restoreSnapshot() throws SQLException {
+		log.info("Restoring snapshot...");
 
-			List<Future<?>> futures = Lists.newArrayList();
-			for (int i = 0; i < numberOfExecutors; i++) {
-				futures.add(executor.submit(() -> {
-					Connection connection;
-					PreparedStatement statement;
-					try {
-						Database backend = type.createBackend();
-						backend.connect(credentials);
-						connection = backend.getConnection();
-						connection.setAutoCommit(false);
-						statement = connection.prepareStatement(QUERY);
-					}
-					catch (SQLException e1) {
-						log.error(e1.getMessage(), e1);
-						return;
-					}
+		if (type == Database.Type.POSTGRESQL) {
+			String database = credentials.getDatabase();
+			String restoring = database + RESTORING_SUFFIX;
 
-					int myCounter = 0;
-					while (counter.incrementAndGet() <= rows) {
-						try {
-							statement.setString(1, RandomNameGenerator.generate());
-							statement.addBatch();
-							myCounter++;
-
-							if (myCounter % BATCH_SIZE == 0) {
-								statement.executeBatch();
-								statement.close();
-								connection.commit();
-
-								statement = connection.prepareStatement(QUERY);
-								myCounter = 0;
-							}
-						}
-						catch (SQLException e1) {
-							log.error(e1.getMessage(), e1);
-							return;
-						}
+			Database maintenance = connectToMaintenanceDatabase();
+			try {
+				terminateConnections(maintenance, restoring);
+				maintenance.query("DROP DATABASE IF EXISTS " + quote(restoring));
+				terminateConnections(maintenance, getSnapshotDatabase());
+				maintenance.query("CREATE DATABASE " + quote(restoring) + " TEMPLATE " + quote(getSnapshotDatabase()));
+
+				terminateConnections(maintenance, database);
+				maintenance.query("DROP DATABASE IF EXISTS " + quote(database));
+				maintenance.query("ALTER DATABASE " + quote(restoring) + " RENAME TO " + quote(database));
+			}
+			finally {
+				maintenance.close();
+			}
+		}
+		else {
+			String restoring = "users" + RESTORING_SUFFIX;
+
+			Database backend = type.createBackend();
+			backend.connect(credentials);
+			try {
+				backend.query("SET foreign_key_checks = 0");
+				backend.query("DROP TABLE IF EXISTS " + restoring);
+				backend.query("CREATE TABLE " + restoring + " LIKE " + SNAPSHOT_TABLE);
+				copyTable(backend, SNAPSHOT_TABLE, restoring);
+
+				// Operations may have renamed or dropped the table, so it is only swapped out if it still exists.
+				if (backend.hasTable("users")) {
+					backend.query("DROP TABLE IF EXISTS users" + REPLACED_SUFFIX);
+					backend.query("RENAME TABLE users TO users" + REPLACED_SUFFIX + ", " + restoring + " TO users");
+				}
+				else {
+					backend.query("RENAME TABLE " + restoring + " TO users");
+				}
+
+				for (Table table : backend.listTables()) {
+					if (!table.getName().equals("users") && !table.getName().equals(SNAPSHOT_TABLE)) {
+						table.drop();
 					}
+				}
+				backend.query("ANALYZE TABLE users");
+			}
+			finally {
+				backend.close();
+			}
+		}
 
-					try {
-						if (myCounter > 0) {
-							statement.executeBatch();
-							statement.close();
-							connection.commit();
-						}
+		log.info("Snapshot restored");
+	}
+
+	/**
+	 * Drops the snapshot taken by createSnapshot, if it exists.
+	 */
+	public void dropSnapshot() throws SQLException {
+		if (type == Database.Type.POSTGRESQL) {
+			Database maintenance = connectToMaintenanceDatabase();
+			try {
+				terminateConnections(maintenance, getSnapshotDatabase());
+				maintenance.query("DROP DATABASE IF EXISTS " + quote(getSnapshotDatabase()));
+			}
+			finally {
+				maintenance.close();
+			}
+		}
+		else {
+			Database backend = type.createBackend();
+			backend.connect(credentials);
+			try {
+				backend.query("DROP TABLE IF EXISTS " + SNAPSHOT_TABLE);
+			}
+			finally {
+				backend.close();
+			}
+		}
+	}
+
+	/**
+	 * Fills the "users" table with the specified number of rows. On PostgreSQL the rows are streamed through the COPY
+	 * protocol, on MySQL through LOAD DATA LOCAL INFILE.
+	 */
+	public void prepareRows(int rows) throws SQLException, InterruptedException {
+		log.info("Filling table...");
+		long start = System.currentTimeMillis();
+
+		switch (type) {
+			case POSTGRESQL:
+				loadRows(rows, this::copyRows);
+				synchronizeSequence();
+				break;
+			case MYSQL_55:
+			case MYSQL_56:
+				loadRows(rows, this::loadDataRows);
+				break;
+			default:
+				throw new UnsupportedOperationException("Cannot load rows into: " + type);
+		}
 
-						connection.close();
+		double seconds = Math.max(1, System.currentTimeMillis() - start) / 1000.0;
+		log.info("Table filled with " + rows + " rows in " + FORMAT.format(seconds) + " seconds ("
+				+ (long) (rows / seconds) + " rows/sec)");
+	}
+
+	/**
+	 * Determines whether unique and foreign key checks are disabled while loading rows into MySQL. This is safe since
+	 * the generated ids never collide, and avoids lookups in the secondary indexes for every row. Enabled by default.
+	 */
+	public void setRelaxChecks(boolean relaxChecks) {
+		this.relaxChecks = relaxChecks;
+	}
+
+	/**
+	 * Determines whether indexes are built after the rows have been loaded instead of before. Only the primary key of
+	 * PostgreSQL is deferred: InnoDB stores rows in the order of their primary key, so adding it afterwards would
+	 * rebuild the entire table, and MySQL requires an AUTO_INCREMENT column to be indexed. Disabled by default.
+	 */
+	public void setDeferIndexes(boolean deferIndexes) {
+		this.deferIndexes = deferIndexes;
+	}
+
+	/**
+	 * Sets the number of threads (and connections) used to load rows. Defaults to a number based on the number of
+	 * available processors and the type of database.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Sets the seed from which the contents of every row are derived. Loading the same number of rows with the same
+	 * seed always produces the same table, regardless of the number of threads.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Splits the id space into one disjoint, contiguous range per thread, and loads every range over its own
+	 * connection. Threads share nothing but a striped counter which is updated once per block of rows. If any of the
+	 * threads fails, its failure is rethrown once all threads have stopped.
+	 */
+	private void loadRows(int rows, RangeLoader loader) throws SQLException, InterruptedException {
+		int rangeCount = (int) Math.max(1, Math.min(threads, Math.ceil(rows / (double) MIN_RANGE_SIZE)));
+		ExecutorService executor = Executors.newFixedThreadPool(rangeCount);
+		log.info("Loading " + rows + " rows using " + rangeCount + " threads");
+
+		try {
+			LongAdder counter = new LongAdder();
+			List<Future<Void>> futures = Lists.newArrayList();
+			long firstId = 1;
+			for (int i = 0; i < rangeCount; i++) {
+				int share = rows / rangeCount + (i < rows % rangeCount ? 1 : 0);
+				long rangeStart = firstId;
+				firstId += share;
+
+				futures.add(executor.submit(() -> {
+					Database backend = type.createBackend();
+					try {
+						backend.connect(credentials);
+						loader.load(backend.getConnection(), rangeStart, share, counter);
 					}
-					catch (SQLException e1) {
-						log.error(e1.getMessage(), e1);
+					finally {
+						close(backend);
 					}
+					return null;
 				}));
 			}
 
-			long lastCounter = 0;
-			String lastPrinted = "";
-			while (counter.get() < rows) {
-				sleep(100);
+			reportProgress(counter, rows, futures);
+			awaitLoaders(futures);
+		}
+		finally {
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.HOURS);
+		}
+	}
 
-				String print = FORMAT.format((double) counter.get() / rows * 100d) + "%";
-				print = Strings.padStart(print, 7, ' ');
+	/**
+	 * Streams generated rows through the COPY protocol of PostgreSQL. The rows carry explicit ids, so every id is
+	 * paired with the same name regardless of the order in which the threads load their ranges.
+	 */
+	private void copyRows(Connection connection, long firstId, int rows, LongAdder counter)
+			throws SQLException, IOException {
 
-				if (!lastPrinted.equals(print)) {
-					long now = System.currentTimeMillis();
-					double newInserts = counter.get() - lastCounter;
-					double timeDiff = ((double) (now - lastTimestamp.get())) / 1000.0;
-					long speed = (long) (newInserts / timeDiff);
+		CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+		copyManager.copyIn(COPY_QUERY, new RowStream(firstId, rows, true, seed, counter), STREAM_BUFFER_SIZE);
+	}
 
-					log.info(print + " - " + speed + " inserts/sec");
-					lastPrinted = print;
-					lastTimestamp.set(now);
-					lastCounter = counter.get();
-				}
+	/**
+	 * Moves the sequence backing the id column past the highest id loaded by copyRows, so that the ids generated for
+	 * rows inserted by the workers do not collide with the loaded rows.
+	 */
+	private void synchronizeSequence() throws SQLException {
+		Database backend = type.createBackend();
+		try {
+			backend.connect(credentials);
+			backend.query("SELECT setval('users_id_seq', COALESCE(MAX(id), 0) + 1, false) FROM users");
+		}
+		finally {
+			close(backend);
+		}
+	}
+
+	/**
+	 * Streams generated rows through LOAD DATA LOCAL INFILE into MySQL. The rows carry explicit ids in ascending
+	 * order within every range only. The ranges are loaded concurrently, so InnoDB inserts at one point of its
+	 * clustered index per range rather than only at its end, and may still split pages.
+	 */
+	private void loadDataRows(Connection connection, long firstId, int rows, LongAdder counter)
+			throws SQLException {
+
+		try (Statement statement = connection.createStatement()) {
+			if (relaxChecks) {
+				statement.execute("SET unique_checks = 0");
+				statement.execute("SET foreign_key_checks = 0");
 			}
 
-			while (!futures.isEmpty()) {
+			// Every statement is committed on its own, which keeps the undo log of InnoDB small.
+			com.mysql.jdbc.Statement mysqlStatement = statement.unwrap(com.mysql.jdbc.Statement.class);
+			for (int offset = 0; offset < rows; offset += LOAD_DATA_ROWS) {
+				int chunk = Math.min(LOAD_DATA_ROWS, rows - offset);
+				RowStream stream = new RowStream(firstId + offset, chunk, true, seed, counter);
+				mysqlStatement.setLocalInfileInputStream(new BufferedInputStream(stream, STREAM_BUFFER_SIZE));
 				try {
-					futures.remove(0).get();
+					statement.execute(LOAD_DATA_QUERY);
 				}
-				catch (InterruptedException | ExecutionException e) {
-					e.printStackTrace();
+				finally {
+					mysqlStatement.setLocalInfileInputStream(null);
 				}
 			}
 
-			log.info("Table filled");
+			if (relaxChecks) {
+				statement.execute("SET unique_checks = 1");
+				statement.execute("SET foreign_key_checks = 1");
+			}
 		}
-		finally {
-			executor.shutdown();
-			executor.awaitTermination(1, TimeUnit.HOURS);
+	}
+
+	/**
+	 * Logs the progress and speed of the loader threads until all rows have been loaded or all threads have stopped.
+	 */
+	private void reportProgress(LongAdder counter, int rows, List<Future<Void>> futures) {
+		long lastTimestamp = System.currentTimeMillis();
+		long lastCounter = 0;
+		String lastPrinted = "";
+		while (counter.sum() < rows && !futures.stream().allMatch(Future::isDone)) {
+			sleep(100);
+
+			long current = counter.sum();
+			String print = FORMAT.format((double) Math.min(rows, current) / rows * 100d) + "%";
+			print = Strings.padStart(print, 7, ' ');
+
+			if (!lastPrinted.equals(print)) {
+				long now = System.currentTimeMillis();
+				double newRows = current - lastCounter;
+				double timeDiff = ((double) (now - lastTimestamp)) / 1000.0;
+				long speed = (long) (newRows / timeDiff);
+
+				log.info(print + " - " + speed + " rows/sec");
+				lastPrinted = print;
+				lastTimestamp = now;
+				lastCounter = current;
+			}
+		}
+	}
+
+	/**
+	 * Waits for all loader threads to complete, and rethrows the failure of the first thread which failed. The
+	 * failures of any other threads are added to it as suppressed exceptions.
+	 */
+	private void awaitLoaders(List<Future<Void>> futures) throws SQLException, InterruptedException {
+		SQLException failure = null;
+		for (Future<Void> future : futures) {
+			try {
+				future.get();
+			}
+			catch (ExecutionException e) {
+				SQLException cause = e.getCause() instanceof SQLException
+						? (SQLException) e.getCause()
+						: new SQLException(e.getCause());
+
+				if (failure == null) {
+					failure = cause;
+				}
+				else {
+					failure.addSuppressed(cause);
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Copies all rows of one MySQL table into another in statements of at most COPY_CHUNK_ROWS ids, which commit
+	 * separately. This keeps the undo log small and avoids holding locks on the entire source table at once.
+	 */
+	private void copyTable(Database backend, String source, String target) throws SQLException {
+		KeySpace keySpace = KeySpace.of(backend, source);
+		for (long from = keySpace.getLowest(); from <= keySpace.getHighest(); from += COPY_CHUNK_ROWS) {
+			long to = Math.min(keySpace.getHighest(), from + COPY_CHUNK_ROWS - 1);
+			backend.query("INSERT INTO " + target + " SELECT * FROM " + source
+					+ " WHERE id BETWEEN " + from + " AND " + to);
+		}
+	}
+
+	/**
+	 * Databases cannot be created from or dropped while there are connections to them, so any remaining connections
+	 * (for instance of workers which did not shut down cleanly) are terminated first.
+	 */
+	private void terminateConnections(Database maintenance, String database) throws SQLException {
+		maintenance.query("SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+				+ "WHERE datname = '" + database.replace("'", "''") + "' AND pid <> pg_backend_pid()");
+	}
+
+	private Database connectToMaintenanceDatabase() throws SQLException {
+		Database backend = type.createBackend();
+		backend.connect(new DatabaseCredentials(credentials.getUrl(), MAINTENANCE_DATABASE,
+				credentials.getUsername(), credentials.getPassword()));
+		return backend;
+	}
+
+	private String getSnapshotDatabase() {
+		return credentials.getDatabase() + SNAPSHOT_SUFFIX;
+	}
+
+	private static String quote(String identifier) {
+		return "\"" + identifier.replace("\"", "\"\"") + "\"";
+	}
+
+	private boolean isPrimaryKeyDeferred() {
+		return deferIndexes && type == Database.Type.POSTGRESQL;
+	}
+
+	/**
+	 * @return The statements building the indexes which prepareStructure left out of the table.
+	 */
+	private List<String> getDeferredIndexes() {
+		List<String> statements = Lists.newArrayList();
+		if (isPrimaryKeyDeferred()) {
+			statements.add("ALTER TABLE users ADD PRIMARY KEY (id)");
+		}
+		return statements;
+	}
+
+	/**
+	 * Every COPY is parsed by its own backend process in PostgreSQL, so it scales with the number of processors. InnoDB
+	 * contends on its index latches with many concurrent loads.
+	 */
+	private static int getDefaultThreads(Database.Type type) {
+		int processors = Runtime.getRuntime().availableProcessors();
+		if (type == Database.Type.POSTGRESQL) {
+			return processors;
+		}
+		return Math.max(2, processors / 2);
+	}
+
+	@FunctionalInterface
+	private interface RangeLoader {
+		void load(Connection connection, long firstId, int rows, LongAdder counter) throws SQLException, IOException;
+	}
+
+	private void close(Database backend) {
+		try {
+			if (backend.getConnection() != null) {
+				backend.close();
+			}
+		}
+		catch (SQLException e) {
+			log.error(e.getMessage(), e);
 		}
 	}
 
@@ -1,8 +1,7 @@
 package io.quantumdb.nemesis.profiler;
 
-import java.io.Writer;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Random;
 
 import io.quantumdb.nemesis.structure.Database;
 import io.quantumdb.nemesis.structure.DatabaseCredentials;
@@ -10,25 +9,33 @@ import io.quantumdb.nemesis.structure.DatabaseCredentials;
 
 public class DeleteWorker extends Worker {
 
-	private static final String QUERY = "DELETE FROM %s WHERE id = %d;";
+	private static final String QUERY = "DELETE FROM %s WHERE id = ?";
 
 	private final Database backend;
 	private final String tableName;
-	private final Random random;
+	private final KeyGenerator keys;
 
-	public DeleteWorker(Database backend, DatabaseCredentials credentials, Writer writer,
-			long startingTimestamp, String tableName) {
+	private PreparedStatement statement;
 
-		super(backend, credentials, writer, startingTimestamp);
+	public DeleteWorker(Database backend, DatabaseCredentials credentials, ResultBuffer results,
+			long startingTimestamp, int rate, String tableName, KeyGenerator keys) {
+
+		super(backend, credentials, RecordType.DELETE, results, startingTimestamp, rate);
 		this.backend = backend;
 		this.tableName = tableName;
-		this.random = new Random();
+		this.keys = keys;
 	}
 	
+	@Override
+	void prepareStatements() throws SQLException {
+		statement = backend.prepare(String.format(QUERY, tableName));
+	}
+
 	@Override
 	void doAction() throws SQLException {
-		int from = random.nextInt(100_000_000);
-		backend.query(String.format(QUERY, tableName, from));
+		long from = keys.next();
+		statement.setLong(1, from);
+		statement.execute();
 	}
 	
 }
@@ -0,0 +1,117 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps track of the number of completed and failed requests per type of Worker, for every phase of a Session
+ * (before, during, and after the operation). The counters of the Workers are snapshotted at the boundaries of each
+ * phase, and the differences are reported as the error rate of that phase.
+ */
+@Slf4j
+class ErrorReport {
+
+	private static final String FILE_NAME = "errors.tsv";
+
+	private final List<Worker> workers;
+	private final List<String> phases = Lists.newArrayList();
+	private final List<Map<RecordType, long[]>> snapshots = Lists.newArrayList();
+
+	ErrorReport(List<Worker> workers) {
+		this.workers = Lists.newArrayList(workers);
+		this.snapshots.add(snapshot());
+	}
+
+	/**
+	 * Ends the current phase, and labels it with the specified name.
+	 */
+	void endPhase(String phase) {
+		phases.add(phase);
+		snapshots.add(snapshot());
+	}
+
+	/**
+	 * @return The fraction of requests which failed during the specified phase, over all types of Workers.
+	 */
+	double getErrorRate(String phase) {
+		int index = phases.indexOf(phase);
+		if (index < 0) {
+			throw new IllegalArgumentException("Unknown phase: " + phase);
+		}
+
+		long completed = 0;
+		long failed = 0;
+		for (RecordType type : snapshots.get(index + 1).keySet()) {
+			long[] counts = difference(index, type);
+			completed += counts[0];
+			for (int i = 1; i < counts.length; i++) {
+				failed += counts[i];
+			}
+		}
+		return rate(completed, failed);
+	}
+
+	void write(File folder) throws IOException {
+		try (Writer writer = new FileWriter(new File(folder, FILE_NAME))) {
+			writer.write("Phase\tWorker\tCompleted");
+			for (ErrorType errorType : ErrorType.values()) {
+				writer.write("\t" + errorType);
+			}
+			writer.write("\tErrorRate\n");
+
+			for (int i = 0; i < phases.size(); i++) {
+				for (RecordType type : snapshots.get(i + 1).keySet()) {
+					long[] counts = difference(i, type);
+					long failed = 0;
+
+					writer.write(phases.get(i) + "\t" + type.getLabel() + "\t" + counts[0]);
+					for (int j = 1; j < counts.length; j++) {
+						writer.write("\t" + counts[j]);
+						failed += counts[j];
+					}
+					writer.write(String.format("\t%.6f\n", rate(counts[0], failed)));
+				}
+			}
+		}
+	}
+
+	private long[] difference(int phase, RecordType type) {
+		long[] before = snapshots.get(phase).get(type);
+		long[] after = snapshots.get(phase + 1).get(type);
+
+		long[] result = new long[after.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = after[i] - (before == null ? 0 : before[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return Per type of Worker, the number of completed requests followed by the number of errors per ErrorType.
+	 */
+	private Map<RecordType, long[]> snapshot() {
+		Map<RecordType, long[]> counts = Maps.newTreeMap();
+		for (Worker worker : workers) {
+			long[] total = counts.computeIfAbsent(worker.getRecordType(), key -> new long[ErrorType.values().length + 1]);
+			total[0] += worker.getCompleted();
+			for (ErrorType errorType : ErrorType.values()) {
+				total[errorType.ordinal() + 1] += worker.getErrors(errorType);
+			}
+		}
+		return counts;
+	}
+
+	private static double rate(long completed, long failed) {
+		long total = completed + failed;
+		return total == 0 ? 0 : (double) failed / total;
+	}
+
+}
@@ -0,0 +1,83 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Classifies the errors which Workers encounter, based on the SQL state and vendor codes of PostgreSQL and MySQL.
+ */
+public enum ErrorType {
+
+	LOCK_TIMEOUT(RecordType.LOCK_TIMEOUT),
+	DEADLOCK(RecordType.DEADLOCK),
+	CONNECTION_LOST(RecordType.CONNECTION_LOST),
+	SERIALIZATION_FAILURE(RecordType.SERIALIZATION_FAILURE),
+	OTHER(RecordType.ERROR);
+
+	// MySQL vendor error codes.
+	private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+	private static final int MYSQL_DEADLOCK = 1213;
+
+	public static ErrorType classify(SQLException exception) {
+		for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+			if (!(cause instanceof SQLException)) {
+				continue;
+			}
+
+			ErrorType type = classifySingle((SQLException) cause);
+			if (type != OTHER) {
+				return type;
+			}
+		}
+		return OTHER;
+	}
+
+	private static ErrorType classifySingle(SQLException exception) {
+		if (exception instanceof SQLNonTransientConnectionException
+				|| exception instanceof SQLTransientConnectionException
+				|| exception instanceof SQLRecoverableException) {
+			return CONNECTION_LOST;
+		}
+
+		switch (exception.getErrorCode()) {
+			case MYSQL_LOCK_WAIT_TIMEOUT:
+				return LOCK_TIMEOUT;
+			case MYSQL_DEADLOCK:
+				return DEADLOCK;
+			default:
+				break;
+		}
+
+		String state = exception.getSQLState();
+		if (state == null) {
+			return OTHER;
+		}
+		if (state.startsWith("08") || state.equals("57P01") || state.equals("57P02") || state.equals("57P03")) {
+			return CONNECTION_LOST;
+		}
+
+		switch (state) {
+			case "55P03":
+				return LOCK_TIMEOUT;
+			case "40P01":
+				return DEADLOCK;
+			case "40001":
+				return SERIALIZATION_FAILURE;
+			default:
+				return OTHER;
+		}
+	}
+
+	private final RecordType recordType;
+
+	ErrorType(RecordType recordType) {
+		this.recordType = recordType;
+	}
+
+	public RecordType getRecordType() {
+		return recordType;
+	}
+
+}
@@ -0,0 +1,58 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * This class writes interval snapshots of the latency histograms of all Workers in a Session, summed into a single
+ * histogram per interval, to one HdrHistogram log file. Latencies are recorded in nanoseconds, so the max column in
+ * the log is expressed in milliseconds.
+ */
+class HistogramLog implements Closeable {
+
+	private final List<Worker> workers;
+	private final HistogramLogWriter writer;
+	private final Histogram interval = new Histogram(3);
+
+	private Histogram recycle;
+
+	HistogramLog(List<Worker> workers, File file, long startingTimestamp) throws FileNotFoundException {
+		this.workers = workers;
+		this.writer = new HistogramLogWriter(file);
+
+		writer.outputComment("Workers: " + workers.size());
+		writer.outputLogFormatVersion();
+		writer.outputStartTime(startingTimestamp);
+		writer.setBaseTime(startingTimestamp);
+		writer.outputLegend();
+	}
+
+	synchronized void snapshot() {
+		interval.reset();
+		interval.setStartTimeStamp(Long.MAX_VALUE);
+		interval.setEndTimeStamp(0);
+
+		for (Worker worker : workers) {
+			recycle = worker.getIntervalHistogram(recycle);
+			interval.add(recycle);
+			interval.setStartTimeStamp(Math.min(interval.getStartTimeStamp(), recycle.getStartTimeStamp()));
+			interval.setEndTimeStamp(Math.max(interval.getEndTimeStamp(), recycle.getEndTimeStamp()));
+		}
+
+		if (!workers.isEmpty()) {
+			writer.outputIntervalHistogram(interval);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		snapshot();
+		writer.close();
+	}
+
+}
@@ -1,6 +1,6 @@
 package io.quantumdb.nemesis.profiler;
 
-import java.io.Writer;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import io.quantumdb.nemesis.structure.Database;
@@ -9,22 +9,33 @@ import io.quantumdb.nemesis.structure.DatabaseCredentials;
 
 public class InsertWorker extends Worker {
 
-	private static final String QUERY = "INSERT INTO %s (name) VALUES ('%s');";
+	private static final String QUERY = "INSERT INTO %s (name) VALUES (?)";
 
 	private final Database backend;
 	private final String tableName;
+	private final KeySpace keySpace;
 
-	public InsertWorker(Database backend, DatabaseCredentials credentials, Writer writer,
-			long startingTimestamp, String tableName) {
+	private PreparedStatement statement;
 
-		super(backend, credentials, writer, startingTimestamp);
+	public InsertWorker(Database backend, DatabaseCredentials credentials, ResultBuffer results,
+			long startingTimestamp, int rate, String tableName, KeySpace keySpace) {
+
+		super(backend, credentials, RecordType.INSERT, results, startingTimestamp, rate);
 		this.backend = backend;
 		this.tableName = tableName;
+		this.keySpace = keySpace;
 	}
 	
+	@Override
+	void prepareStatements() throws SQLException {
+		statement = backend.prepare(String.format(QUERY, tableName));
+	}
+
 	@Override
 	void doAction() throws SQLException {
-		backend.query(String.format(QUERY, tableName, RandomNameGenerator.generate()));
+		statement.setString(1, RandomNameGenerator.generate());
+		statement.execute();
+		keySpace.inserted();
 	}
 	
 }
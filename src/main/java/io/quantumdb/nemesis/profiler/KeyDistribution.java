@@ -0,0 +1,115 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Describes how the ids targeted by a type of Worker are distributed over the ids present in the table.
+ */
+public enum KeyDistribution {
+
+	/**
+	 * Every id in the table is equally likely to be targeted.
+	 */
+	UNIFORM {
+		@Override
+		public KeyGenerator createGenerator(KeySpace keys, Random random) {
+			return () -> keys.getLowest() + nextLong(random, keys.size());
+		}
+	},
+
+	/**
+	 * Ids are targeted according to a Zipf distribution, where the popular ids are scattered over the table rather
+	 * than clustered at its start.
+	 */
+	ZIPFIAN {
+		@Override
+		public KeyGenerator createGenerator(KeySpace keys, Random random) {
+			long size = Math.max(1, keys.size());
+			long multiplier = scramblingMultiplier(size);
+			ZipfianKeyGenerator zipf = new ZipfianKeyGenerator(size, ZIPFIAN_EXPONENT, random);
+
+			return () -> {
+				long rank = zipf.nextRank() - 1;
+				return keys.getLowest() + multiplyModulo(rank, multiplier, size);
+			};
+		}
+	},
+
+	/**
+	 * A small set of ids (the first 20% of the table) receives the large majority (80%) of all requests.
+	 */
+	HOTSPOT {
+		@Override
+		public KeyGenerator createGenerator(KeySpace keys, Random random) {
+			return () -> {
+				long size = keys.size();
+				long hotSetSize = Math.max(1, (long) (size * HOT_SET_FRACTION));
+				if (random.nextDouble() < HOT_OPERATION_FRACTION) {
+					return keys.getLowest() + nextLong(random, Math.min(size, hotSetSize));
+				}
+				return keys.getLowest() + hotSetSize + nextLong(random, size - hotSetSize);
+			};
+		}
+	},
+
+	/**
+	 * Recently inserted ids are the most popular, with the popularity of older ids following a Zipf distribution.
+	 */
+	LATEST {
+		@Override
+		public KeyGenerator createGenerator(KeySpace keys, Random random) {
+			ZipfianKeyGenerator zipf = new ZipfianKeyGenerator(Math.max(1, keys.size()), ZIPFIAN_EXPONENT, random);
+			return () -> Math.max(keys.getLowest(), keys.getHighest() - zipf.nextRank() + 1);
+		}
+	};
+
+	private static final double ZIPFIAN_EXPONENT = 0.99;
+	private static final double HOT_SET_FRACTION = 0.2;
+	private static final double HOT_OPERATION_FRACTION = 0.8;
+
+	// The product of two values below this modulus still fits in a long.
+	private static final long MAX_SAFE_MODULUS = 3_037_000_499L;
+
+	public abstract KeyGenerator createGenerator(KeySpace keys, Random random);
+
+	public KeyGenerator createGenerator(KeySpace keys) {
+		return createGenerator(keys, new Random());
+	}
+
+	/**
+	 * @return A uniformly distributed value in the range [0, bound), or 0 if the bound is not positive.
+	 */
+	private static long nextLong(Random random, long bound) {
+		if (bound <= 0) {
+			return 0;
+		}
+		if (bound <= Integer.MAX_VALUE) {
+			return random.nextInt((int) bound);
+		}
+		return (long) (random.nextDouble() * bound);
+	}
+
+	private static long multiplyModulo(long value, long multiplier, long modulus) {
+		if (modulus <= MAX_SAFE_MODULUS) {
+			return (value * multiplier) % modulus;
+		}
+		return BigInteger.valueOf(value)
+				.multiply(BigInteger.valueOf(multiplier))
+				.mod(BigInteger.valueOf(modulus))
+				.longValue();
+	}
+
+	/**
+	 * @return A multiplier which is coprime with the specified size, such that (rank * multiplier) mod size is a
+	 * permutation of the ranks.
+	 */
+	private static long scramblingMultiplier(long size) {
+		BigInteger candidate = BigInteger.valueOf(2_654_435_761L);
+		while (!candidate.gcd(BigInteger.valueOf(size)).equals(BigInteger.ONE)) {
+			candidate = candidate.nextProbablePrime();
+		}
+		return candidate.mod(BigInteger.valueOf(size)).longValue();
+	}
+
+}
@@ -0,0 +1,11 @@
+package io.quantumdb.nemesis.profiler;
+
+/**
+ * A KeyGenerator determines which row (identified by its id) a Worker targets with its next query.
+ */
+@FunctionalInterface
+public interface KeyGenerator {
+
+	long next();
+
+}
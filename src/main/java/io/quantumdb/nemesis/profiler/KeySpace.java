@@ -0,0 +1,58 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.quantumdb.nemesis.structure.Database;
+
+/**
+ * This class describes the range of ids which are actually present in a table. The lower bound is determined once
+ * when the Session starts, the upper bound grows as InsertWorkers add new rows to the table.
+ */
+public class KeySpace {
+
+	public static KeySpace of(Database backend, String tableName) throws SQLException {
+		String query = "SELECT MIN(id), MAX(id) FROM " + tableName;
+		try (Statement statement = backend.getConnection().createStatement();
+				ResultSet resultSet = statement.executeQuery(query)) {
+
+			resultSet.next();
+			long lowest = resultSet.getLong(1);
+			long highest = resultSet.getLong(2);
+			if (resultSet.wasNull()) {
+				return new KeySpace(1, 0);
+			}
+			return new KeySpace(lowest, highest);
+		}
+	}
+
+	private final long lowest;
+	private final AtomicLong highest;
+
+	public KeySpace(long lowest, long highest) {
+		this.lowest = lowest;
+		this.highest = new AtomicLong(highest);
+	}
+
+	public long getLowest() {
+		return lowest;
+	}
+
+	public long getHighest() {
+		return highest.get();
+	}
+
+	public long size() {
+		return Math.max(0, getHighest() - lowest + 1);
+	}
+
+	/**
+	 * Registers that a new row has been inserted, which (approximately) received the next id in the sequence.
+	 */
+	void inserted() {
+		highest.incrementAndGet();
+	}
+
+}
@@ -1,5 +1,6 @@
 package io.quantumdb.nemesis.profiler;
 
+import java.sql.SQLException;
 import java.util.List;
 
 import io.quantumdb.nemesis.operations.NamedOperation;
@@ -27,14 +28,53 @@ public class Profiler {
 	}
 
 	public void profile() throws Exception {
+		DatabaseStructure structure = new DatabaseStructure(type, credentials);
+		if (config.isRestoreSnapshots()) {
+			structure.createSnapshot();
+		}
+
 		Session session = new Session(type, config, credentials, startupTimeout, teardownTimeout);
-		for (NamedOperation operation : operations) {
-			try {
-				session.start(operation);
-			}
-			finally {
+		boolean restored = true;
+		try {
+			for (NamedOperation operation : operations) {
+				Exception failure = null;
+				try {
+					session.start(operation);
+				}
+				catch (Exception e) {
+					failure = e;
+				}
+
+				if (config.isRestoreSnapshots()) {
+					restored = false;
+					try {
+						structure.restoreSnapshot();
+						restored = true;
+					}
+					catch (SQLException e) {
+						// A failing restore must not hide why the session itself failed.
+						if (failure == null) {
+							throw e;
+						}
+						failure.addSuppressed(e);
+					}
+				}
+
 				// Good moment for GC to happen...
 				System.gc();
+
+				if (failure != null) {
+					throw failure;
+				}
+			}
+		}
+		finally {
+			// The snapshot may be the only intact copy of the dataset if a restore failed, so it is kept in that case.
+			if (config.isRestoreSnapshots() && restored) {
+				structure.dropSnapshot();
+			}
+			else if (!restored) {
+				log.error("Restoring the snapshot failed, keeping the snapshot to recover the dataset from");
 			}
 		}
 	}
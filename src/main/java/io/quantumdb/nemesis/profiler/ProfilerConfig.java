@@ -6,15 +6,79 @@ import lombok.Data;
 @Data
 public class ProfilerConfig {
 
+	public static final String NAIVE_STRATEGY = "naive";
+	public static final String QUANTUMDB_STRATEGY = "quantumdb";
+
 	private final int readWorkers;
 	private final int updateWorkers;
 	private final int insertWorkers;
 	private final int deleteWorkers;
 
+	/**
+	 * The number of TransactionWorkers, which each run transactions of the configured type. The think time is the
+	 * number of milliseconds these workers wait between the statements of a transaction while holding their locks.
+	 */
+	private int transactionWorkers;
+	private TransactionType transactionType = TransactionType.READ_MODIFY_WRITE;
+	private int transactionThinkTime;
+
+	/**
+	 * Target number of requests per second for every individual worker of a certain type. A rate of 0 (the default)
+	 * makes the workers of that type run in a closed loop, where each query is fired as soon as the previous one
+	 * has completed.
+	 */
+	private int readRate;
+	private int updateRate;
+	private int insertRate;
+	private int deleteRate;
+	private int transactionRate;
+
+	/**
+	 * Determines how the rows targeted by the workers of a certain type are distributed over the table.
+	 */
+	private KeyDistribution readKeys = KeyDistribution.UNIFORM;
+	private KeyDistribution updateKeys = KeyDistribution.UNIFORM;
+	private KeyDistribution deleteKeys = KeyDistribution.UNIFORM;
+	private KeyDistribution transactionKeys = KeyDistribution.UNIFORM;
+
+	/**
+	 * Determines on which kind of threads the workers are run.
+	 */
+	private WorkerExecution execution = WorkerExecution.PLATFORM_THREADS;
+
+	/**
+	 * The number of records each worker can buffer before the ResultWriter has written them to disk. Records which
+	 * do not fit are dropped (and reported). Must be a power of two.
+	 */
+	private int resultBufferSize = 1_024;
+
+	/**
+	 * Determines whether the dataset is snapshotted before the first operation and restored from that snapshot after
+	 * every operation, so that no operation is affected by the changes or bloat left behind by a previous one. On
+	 * PostgreSQL the database is copied at the file level, but on MySQL every restore copies all rows of the table
+	 * again, which adds about the time it took to load the dataset to every operation.
+	 */
+	private boolean restoreSnapshots;
+
+	/**
+	 * The name of the strategy with which the operations are performed. Every strategy writes its logs into a folder
+	 * of its own (logs/&lt;database&gt;/&lt;strategy&gt;/&lt;operation&gt;), so that runs of different strategies
+	 * can be compared afterwards.
+	 */
+	private String strategy = NAIVE_STRATEGY;
+
+	public void setTransactionType(TransactionType transactionType) {
+		if (transactionType == null) {
+			throw new IllegalArgumentException("A transaction type must be specified");
+		}
+		this.transactionType = transactionType;
+	}
+
 	public int getTotalWorkers() {
 		return  Math.max(0, readWorkers) +
 				Math.max(0, updateWorkers) +
 				Math.max(0, insertWorkers) +
-				Math.max(0, deleteWorkers);
+				Math.max(0, deleteWorkers) +
+				Math.max(0, transactionWorkers);
 	}
 }
@@ -28,4 +28,22 @@ public class RandomNameGenerator {
 		return firstName + " " + lastName;
 	}
 
+	/**
+	 * Generates a name which only depends on the specified seed and id, so that rows can be generated in any order and
+	 * on any number of threads without sharing a random number generator.
+	 */
+	public static String generate(long seed, long id) {
+		long hash = mix(seed ^ mix(id));
+		String firstName = FIRST_NAMES[(int) Long.remainderUnsigned(hash, FIRST_NAMES.length)];
+		String lastName = LAST_NAMES[(int) Long.remainderUnsigned(hash >>> 32, LAST_NAMES.length)];
+		return firstName + " " + lastName;
+	}
+
+	// The finalizer of SplitMix64, which spreads consecutive inputs over all bits of the output.
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+
 }
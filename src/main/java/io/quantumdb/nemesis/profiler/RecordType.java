@@ -0,0 +1,69 @@
+package io.quantumdb.nemesis.profiler;
+
+/**
+ * Describes the kinds of records which are written to the logs of a Session. The label is used to identify the
+ * record in the text based logs, the id is used in fixed-size record representations. Error records describe a
+ * failed request of the worker whose log they appear in, from its start until the moment it failed.
+ */
+public enum RecordType {
+
+	SELECT(0, "SelectWorker"),
+	UPDATE(1, "UpdateWorker"),
+	INSERT(2, "InsertWorker"),
+	DELETE(3, "DeleteWorker"),
+	TRANSACTION(4, "TransactionWorker"),
+	TRANSACTION_COMMIT(5, "TransactionCommit"),
+	TRANSACTION_ROLLBACK(6, "TransactionRollback"),
+	OPERATION(7, "Operation"),
+
+	LOCK_TIMEOUT(8, "LockTimeout"),
+	DEADLOCK(9, "Deadlock"),
+	CONNECTION_LOST(10, "ConnectionLost"),
+	SERIALIZATION_FAILURE(11, "SerializationFailure"),
+	ERROR(12, "Error");
+
+	private static final RecordType[] BY_ID = new RecordType[values().length];
+
+	static {
+		for (RecordType type : values()) {
+			BY_ID[type.id] = type;
+		}
+	}
+
+	public static RecordType fromId(int id) {
+		if (id < 0 || id >= BY_ID.length) {
+			throw new IllegalArgumentException("Unknown record type id: " + id);
+		}
+		return BY_ID[id];
+	}
+
+	public static RecordType fromLabel(String label) {
+		for (RecordType type : values()) {
+			if (type.label.equals(label)) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("Unknown record type: " + label);
+	}
+
+	private final int id;
+	private final String label;
+
+	RecordType(int id, String label) {
+		this.id = id;
+		this.label = label;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public boolean isError() {
+		return id >= LOCK_TIMEOUT.id;
+	}
+
+}
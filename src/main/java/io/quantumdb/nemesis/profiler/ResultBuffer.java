@@ -0,0 +1,117 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free, allocation-free ring buffer of fixed-size result records. Every buffer has exactly one producer (the
+ * Worker which owns it) and one consumer (the ResultWriter). Records which do not fit in the buffer because the
+ * consumer is falling behind are dropped and counted, rather than stalling the producer.
+ */
+public class ResultBuffer {
+
+	private static final int TYPE_SHIFT = 56;
+	private static final long TIMESTAMP_MASK = (1L << TYPE_SHIFT) - 1;
+
+	@FunctionalInterface
+	public interface Consumer {
+		void accept(RecordType type, long start, long end);
+	}
+
+	private final int capacity;
+	private final int mask;
+	private final long[] records;
+
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong peak = new AtomicLong();
+
+	// Only accessed by the producer.
+	private long cachedHead;
+
+	/**
+	 * @param capacity The maximum number of records the buffer can hold. Must be a power of two.
+	 */
+	public ResultBuffer(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a positive power of two, but was: " + capacity);
+		}
+
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		this.records = new long[capacity * 2];
+	}
+
+	/**
+	 * Publishes a record. May only be called by the producer.
+	 *
+	 * @param type The type of the record.
+	 * @param start The start of the timed action in microseconds since the start of the Session.
+	 * @param end The end of the timed action in microseconds since the start of the Session.
+	 * @return True if the record was published, false if it was dropped because the buffer was full.
+	 */
+	public boolean offer(RecordType type, long start, long end) {
+		long currentTail = tail.get();
+		long occupancy = currentTail - cachedHead;
+		if (occupancy >= capacity) {
+			cachedHead = head.get();
+			occupancy = currentTail - cachedHead;
+			if (occupancy >= capacity) {
+				dropped.lazySet(dropped.get() + 1);
+				return false;
+			}
+		}
+
+		int index = (int) (currentTail & mask) * 2;
+		records[index] = ((long) type.getId() << TYPE_SHIFT) | (start & TIMESTAMP_MASK);
+		records[index + 1] = end;
+		tail.lazySet(currentTail + 1);
+
+		if (occupancy + 1 > peak.get()) {
+			peak.lazySet(occupancy + 1);
+		}
+		return true;
+	}
+
+	/**
+	 * Hands the published records to the specified consumer, in the order in which they were published. May only be
+	 * called by the consumer.
+	 *
+	 * @param consumer The consumer to pass the records to.
+	 * @param limit The maximum number of records to drain.
+	 * @return The number of records drained.
+	 */
+	public int drain(Consumer consumer, int limit) {
+		long currentHead = head.get();
+		long available = Math.min(tail.get() - currentHead, limit);
+
+		for (long i = 0; i < available; i++) {
+			int index = (int) ((currentHead + i) & mask) * 2;
+			long typeAndStart = records[index];
+			long end = records[index + 1];
+			consumer.accept(RecordType.fromId((int) (typeAndStart >>> TYPE_SHIFT)), typeAndStart & TIMESTAMP_MASK, end);
+		}
+
+		head.lazySet(currentHead + available);
+		return (int) available;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The number of records which were dropped because the buffer was full.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * @return The highest number of records which were waiting in the buffer at the same time.
+	 */
+	public long getPeakOccupancy() {
+		return peak.get();
+	}
+
+}
@@ -0,0 +1,132 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.collect.Lists;
+import io.quantumdb.nemesis.logs.BinaryLogWriter;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The ResultWriter drains the ResultBuffers of all Workers in a Session on a single dedicated thread, and writes
+ * their records to disk in the binary log format using buffered writes. This keeps disk I/O (and its jitter)
+ * out of the threads which measure query latencies. When closed, it reports how many records were written and
+ * dropped per log file.
+ */
+@Slf4j
+public class ResultWriter implements Runnable, Closeable {
+
+	private static final int WRITE_BUFFER_SIZE = 8 << 10;
+	private static final int DRAIN_LIMIT = 4096;
+	private static final String SUMMARY_FILE = "results.tsv";
+
+	@Data
+	private static class Output {
+		private final String name;
+		private final ResultBuffer buffer;
+		private final BinaryLogWriter writer;
+		private long written;
+	}
+
+	private final File folder;
+	private final int bufferCapacity;
+	private final List<Output> outputs = Lists.newCopyOnWriteArrayList();
+
+	private volatile boolean running = true;
+	private Thread thread;
+
+	public ResultWriter(File folder, int bufferCapacity) {
+		this.folder = folder;
+		this.bufferCapacity = bufferCapacity;
+	}
+
+	/**
+	 * Creates a new ResultBuffer whose records will be written to the specified binary log file in the Session's
+	 * folder.
+	 */
+	public ResultBuffer register(String fileName) throws IOException {
+		ResultBuffer buffer = new ResultBuffer(bufferCapacity);
+		BinaryLogWriter writer = new BinaryLogWriter(new File(folder, fileName), WRITE_BUFFER_SIZE);
+		outputs.add(new Output(fileName, buffer, writer));
+		return buffer;
+	}
+
+	public void start() {
+		thread = new Thread(this, "result-writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			if (drainAll() == 0) {
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+			}
+		}
+	}
+
+	private int drainAll() {
+		int drained = 0;
+		for (Output output : outputs) {
+			int records = output.getBuffer().drain((type, start, end) -> write(output, type, start, end), DRAIN_LIMIT);
+			output.setWritten(output.getWritten() + records);
+			drained += records;
+		}
+		return drained;
+	}
+
+	private void write(Output output, RecordType type, long start, long end) {
+		try {
+			output.getWriter().write(type, start, end);
+		}
+		catch (IOException e) {
+			log.error(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Stops the writer thread, drains all remaining records, closes the log files, and reports the number of written
+	 * and dropped records. Must only be called once the Workers have stopped producing records.
+	 */
+	@Override
+	public void close() throws IOException {
+		running = false;
+		if (thread != null) {
+			try {
+				thread.join();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		while (drainAll() > 0) {
+			// Keep draining until all buffers are empty...
+		}
+
+		try (Writer summary = new FileWriter(new File(folder, SUMMARY_FILE))) {
+			summary.write("File\tWritten\tDropped\tPeakOccupancy\tCapacity\n");
+			for (Output output : outputs) {
+				ResultBuffer buffer = output.getBuffer();
+				output.getWriter().close();
+
+				summary.write(output.getName() + "\t" + output.getWritten() + "\t" + buffer.getDropped() + "\t"
+						+ buffer.getPeakOccupancy() + "\t" + buffer.getCapacity() + "\n");
+
+				if (buffer.getDropped() > 0) {
+					log.warn("Dropped {} records for: {}, the result writer could not keep up",
+							buffer.getDropped(), output.getName());
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates rows for the "users" table on demand in the tab-separated text format which is understood by both the
+ * COPY command of PostgreSQL and the LOAD DATA command of MySQL. Rows are generated in small blocks while the stream
+ * is being read, so no rows are ever kept in memory or written to disk in their entirety. The contents of every row
+ * only depend on the seed and its id, so any range of ids can be generated independently.
+ */
+class RowStream extends InputStream {
+
+	private static final int ROWS_PER_BLOCK = 4096;
+	private static final byte[] EMPTY = new byte[0];
+
+	private final long firstId;
+	private final int rows;
+	private final boolean writeIds;
+	private final long seed;
+	private final LongAdder progress;
+
+	private byte[] block = EMPTY;
+	private int position;
+	private int generated;
+
+	/**
+	 * @param firstId The id of the first row, which is incremented by one for every next row.
+	 * @param rows The number of rows to generate.
+	 * @param writeIds Whether every row should start with its id, or only contain a name.
+	 * @param seed The seed from which the name of every row is derived, together with its id.
+	 * @param progress The counter to increment with the number of rows generated.
+	 */
+	RowStream(long firstId, int rows, boolean writeIds, long seed, LongAdder progress) {
+		this.firstId = firstId;
+		this.rows = rows;
+		this.writeIds = writeIds;
+		this.seed = seed;
+		this.progress = progress;
+	}
+
+	@Override
+	public int read() {
+		if (position >= block.length && !nextBlock()) {
+			return -1;
+		}
+		return block[position++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) {
+		if (length == 0) {
+			return 0;
+		}
+		if (position >= block.length && !nextBlock()) {
+			return -1;
+		}
+
+		int read = Math.min(length, block.length - position);
+		System.arraycopy(block, position, buffer, offset, read);
+		position += read;
+		return read;
+	}
+
+	private boolean nextBlock() {
+		if (generated >= rows) {
+			return false;
+		}
+
+		int count = Math.min(ROWS_PER_BLOCK, rows - generated);
+		StringBuilder builder = new StringBuilder(count * 24);
+		for (int i = 0; i < count; i++) {
+			long id = firstId + generated + i;
+			if (writeIds) {
+				builder.append(id).append('\t');
+			}
+			appendValue(builder, RandomNameGenerator.generate(seed, id));
+			builder.append('\n');
+		}
+
+		block = builder.toString().getBytes(StandardCharsets.UTF_8);
+		position = 0;
+		generated += count;
+		progress.add(count);
+		return true;
+	}
+
+	private static void appendValue(StringBuilder builder, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			switch (character) {
+				case '\\':
+					builder.append("\\\\");
+					break;
+				case '\t':
+					builder.append("\\t");
+					break;
+				case '\n':
+					builder.append("\\n");
+					break;
+				case '\r':
+					builder.append("\\r");
+					break;
+				default:
+					builder.append(character);
+			}
+		}
+	}
+
+}
@@ -1,8 +1,7 @@
 package io.quantumdb.nemesis.profiler;
 
-import java.io.Writer;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Random;
 
 import io.quantumdb.nemesis.structure.Database;
 import io.quantumdb.nemesis.structure.DatabaseCredentials;
@@ -10,24 +9,32 @@ import io.quantumdb.nemesis.structure.DatabaseCredentials;
 
 public class SelectWorker extends Worker {
 
-	private static final String QUERY = "SELECT * FROM %s WHERE id = %d;";
+	private static final String QUERY = "SELECT id, name FROM %s WHERE id = ?";
 	
-	private final Random random;
 	private final Database backend;
 	private final String tableName;
+	private final KeyGenerator keys;
+
+	private PreparedStatement statement;
 	
-	public SelectWorker(Database backend, DatabaseCredentials credentials, Writer writer,
-			long startingTimestamp, String tableName) {
+	public SelectWorker(Database backend, DatabaseCredentials credentials, ResultBuffer results,
+			long startingTimestamp, int rate, String tableName, KeyGenerator keys) {
 
-		super(backend, credentials, writer, startingTimestamp);
+		super(backend, credentials, RecordType.SELECT, results, startingTimestamp, rate);
 		this.backend = backend;
 		this.tableName = tableName;
-		this.random = new Random();
+		this.keys = keys;
 	}
 	
+	@Override
+	void prepareStatements() throws SQLException {
+		statement = backend.prepare(String.format(QUERY, tableName));
+	}
+
 	@Override
 	void doAction() throws SQLException {
-		backend.query(String.format(QUERY, tableName, random.nextInt(100_000_000)));
+		statement.setLong(1, keys.next());
+		statement.execute();
 	}
 	
 }
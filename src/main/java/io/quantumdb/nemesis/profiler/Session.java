@@ -3,13 +3,16 @@ package io.quantumdb.nemesis.profiler;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.collect.Lists;
+import io.quantumdb.nemesis.logs.SessionInfo;
 import io.quantumdb.nemesis.operations.NamedOperation;
 import io.quantumdb.nemesis.structure.Database;
 import io.quantumdb.nemesis.structure.DatabaseCredentials;
@@ -18,6 +21,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class Session {
 
+	private static final int HISTOGRAM_INTERVAL = 100;
+	private static final String HISTOGRAM_FILE = "latency.hlog";
+
 	private final Database.Type type;
 	private final ProfilerConfig config;
 	private final DatabaseCredentials credentials;
@@ -37,6 +43,7 @@ public class Session {
 	public File start(NamedOperation operation) throws Exception {
 		File folder = null;
 		ScheduledThreadPoolExecutor executor = null;
+		ExecutorService workerExecutor = null;
 		Database backend = type.createBackend();
 
 		if (!operation.isSupportedBy(backend)) {
@@ -46,54 +53,88 @@ public class Session {
 
 		List<Worker> workers = Lists.newArrayList();
 		List<Writer> writers = Lists.newArrayList();
+		HistogramLog histogramLog = null;
+		ResultWriter resultWriter = null;
+		ErrorReport errorReport = null;
 
 		try {
-			executor = new ScheduledThreadPoolExecutor(config.getTotalWorkers() + 1);
+			executor = new ScheduledThreadPoolExecutor(2);
+			workerExecutor = config.getExecution().createExecutor(config.getTotalWorkers());
 
 			backend.connect(credentials);
 			operation.prepare(backend);
 
 			sleep(100);
 
-			folder = new File("logs/" + type + "/" + operation.getName() + "/");
+			folder = new File("logs/" + type + "/" + config.getStrategy() + "/" + operation.getName() + "/");
 			folder.mkdirs();
 
+			KeySpace keySpace = KeySpace.of(backend, "users");
+			log.debug("Targeting ids in range [{}, {}]", keySpace.getLowest(), keySpace.getHighest());
+
+			SessionInfo info = new SessionInfo();
+			info.setDatabase(type.name());
+			info.setOperation(operation.getName());
+			info.setStartupTimeout(startupTimeout);
+			info.setTeardownTimeout(teardownTimeout);
+			info.write(folder);
+
+			resultWriter = new ResultWriter(folder, config.getResultBufferSize());
 			long start = System.currentTimeMillis();
 
 			Writer opWriter = new FileWriter(new File(folder, "OPERATION.log"));
 			writers.add(opWriter);
 
 			for (int i = 1; i <= config.getReadWorkers(); i++) {
-				Writer writer = new FileWriter(new File(folder, String.format("READER-%d.log", i)));
-				workers.add(new SelectWorker(type.createBackend(), credentials, writer, start, "users"));
-				writers.add(writer);
+				ResultBuffer results = resultWriter.register(String.format("READER-%d.bin", i));
+				Worker worker = new SelectWorker(type.createBackend(), credentials, results, start,
+						config.getReadRate(), "users", config.getReadKeys().createGenerator(keySpace));
+				workers.add(worker);
 			}
 
 			for (int i = 1; i <= config.getUpdateWorkers(); i++) {
-				Writer writer = new FileWriter(new File(folder, String.format("UPDATE-%d.log", i)));
-				workers.add(new UpdateWorker(type.createBackend(), credentials, writer, start, "users"));
-				writers.add(writer);
+				ResultBuffer results = resultWriter.register(String.format("UPDATE-%d.bin", i));
+				Worker worker = new UpdateWorker(type.createBackend(), credentials, results, start,
+						config.getUpdateRate(), "users", config.getUpdateKeys().createGenerator(keySpace));
+				workers.add(worker);
 			}
 
 			for (int i = 1; i <= config.getInsertWorkers(); i++) {
-				Writer writer = new FileWriter(new File(folder, String.format("INSERT-%d.log", i)));
-				workers.add(new InsertWorker(type.createBackend(), credentials, writer, start, "users"));
-				writers.add(writer);
+				ResultBuffer results = resultWriter.register(String.format("INSERT-%d.bin", i));
+				Worker worker = new InsertWorker(type.createBackend(), credentials, results, start,
+						config.getInsertRate(), "users", keySpace);
+				workers.add(worker);
 			}
 
 			for (int i = 1; i <= config.getDeleteWorkers(); i++) {
-				Writer writer = new FileWriter(new File(folder, String.format("DELETE-%d.log", i)));
-				workers.add(new DeleteWorker(type.createBackend(), credentials, writer, start, "users"));
-				writers.add(writer);
+				ResultBuffer results = resultWriter.register(String.format("DELETE-%d.bin", i));
+				Worker worker = new DeleteWorker(type.createBackend(), credentials, results, start,
+						config.getDeleteRate(), "users", config.getDeleteKeys().createGenerator(keySpace));
+				workers.add(worker);
 			}
 
-			workers.stream().forEach(executor::submit);
+			for (int i = 1; i <= config.getTransactionWorkers(); i++) {
+				ResultBuffer results = resultWriter.register(String.format("TRANSACTION-%d.bin", i));
+				Worker worker = new TransactionWorker(type.createBackend(), credentials, results, start,
+						config.getTransactionRate(), "users", config.getTransactionType(),
+						config.getTransactionThinkTime(), config.getTransactionKeys().createGenerator(keySpace), keySpace);
+				workers.add(worker);
+			}
+
+			histogramLog = new HistogramLog(workers, new File(folder, HISTOGRAM_FILE), start);
+
+			resultWriter.start();
+			workers.stream().forEach(workerExecutor::submit);
+			executor.scheduleAtFixedRate(histogramLog::snapshot,
+					HISTOGRAM_INTERVAL, HISTOGRAM_INTERVAL, TimeUnit.MILLISECONDS);
 
 			log.info("Benchmarking: {}...", operation.getName());
+			errorReport = new ErrorReport(workers);
 			workers.stream().forEach(c -> c.start());
 
 			sleep(startupTimeout);
 
+			errorReport.endPhase("pre");
 			log.info("\tPerforming operation: {}...", operation.getName());
 			long startOp = System.currentTimeMillis() - start;
 
@@ -115,6 +156,9 @@ public class Session {
 
 			log.info("\tOperation: {} completed", operation.getName());
 			long endOp = System.currentTimeMillis() - start;
+			errorReport.endPhase("during");
+			log.info("\tError rate during operation: {}%",
+					String.format("%.3f", errorReport.getErrorRate("during") * 100));
 
 			opWriter.write("Operation\t" + startOp + "\t" + endOp + "\t" + (endOp - startOp));
 			opWriter.flush();
@@ -124,9 +168,24 @@ public class Session {
 		finally {
 			workers.stream().forEach(c -> c.stop());
 
-			executor.shutdown();
-			executor.awaitTermination(1, TimeUnit.MINUTES);
-			executor.shutdownNow();
+			for (ExecutorService service : Arrays.asList(workerExecutor, executor)) {
+				if (service != null) {
+					service.shutdown();
+					service.awaitTermination(1, TimeUnit.MINUTES);
+					service.shutdownNow();
+				}
+			}
+
+			if (histogramLog != null) {
+				histogramLog.close();
+			}
+			if (errorReport != null) {
+				errorReport.endPhase("post");
+				errorReport.write(folder);
+			}
+			if (resultWriter != null) {
+				resultWriter.close();
+			}
 
 			for (Writer writer : writers) {
 				writer.flush();
@@ -0,0 +1,18 @@
+package io.quantumdb.nemesis.profiler;
+
+/**
+ * Describes the statements which a TransactionWorker executes within a single transaction.
+ */
+public enum TransactionType {
+
+	/**
+	 * Locks a row using SELECT ... FOR UPDATE, updates that same row, and inserts a new row.
+	 */
+	READ_MODIFY_WRITE,
+
+	/**
+	 * Updates two different rows, locking them in ascending id order like a transfer between two accounts would.
+	 */
+	TRANSFER
+
+}
@@ -0,0 +1,145 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import io.quantumdb.nemesis.structure.Database;
+import io.quantumdb.nemesis.structure.DatabaseCredentials;
+
+/**
+ * A Worker which runs multi-statement transactions, holding row locks from the first statement until the commit.
+ * Besides the duration of the complete transaction, the latency of the commit (or of the rollback when one of the
+ * statements fails) is logged separately as a "TransactionCommit" or "TransactionRollback" record.
+ */
+public class TransactionWorker extends Worker {
+
+	private static final String SELECT_QUERY = "SELECT id, name FROM %s WHERE id = ? FOR UPDATE";
+	private static final String UPDATE_QUERY = "UPDATE %s SET name = ? WHERE id = ?";
+	private static final String INSERT_QUERY = "INSERT INTO %s (name) VALUES (?)";
+
+	// Gives up on finding a second row when the key space (or the distribution) only offers a single one.
+	private static final int MAX_KEY_ATTEMPTS = 100;
+
+	private final Database backend;
+	private final String tableName;
+	private final TransactionType transactionType;
+	private final int thinkTime;
+	private final KeyGenerator keys;
+	private final KeySpace keySpace;
+
+	private Connection connection;
+	private PreparedStatement select;
+	private PreparedStatement update;
+	private PreparedStatement insert;
+
+	/**
+	 * @param thinkTime The number of milliseconds to wait between the statements of a transaction, while the locks
+	 *                  acquired by the preceding statements are held.
+	 */
+	public TransactionWorker(Database backend, DatabaseCredentials credentials, ResultBuffer results,
+			long startingTimestamp, int rate, String tableName, TransactionType transactionType, int thinkTime,
+			KeyGenerator keys, KeySpace keySpace) {
+
+		super(backend, credentials, RecordType.TRANSACTION, results, startingTimestamp, rate);
+		this.backend = backend;
+		this.tableName = tableName;
+		this.transactionType = transactionType;
+		this.thinkTime = thinkTime;
+		this.keys = keys;
+		this.keySpace = keySpace;
+	}
+
+	@Override
+	void prepareStatements() throws SQLException {
+		connection = backend.getConnection();
+		connection.setAutoCommit(false);
+
+		select = backend.prepare(String.format(SELECT_QUERY, tableName));
+		update = backend.prepare(String.format(UPDATE_QUERY, tableName));
+		insert = backend.prepare(String.format(INSERT_QUERY, tableName));
+	}
+
+	@Override
+	void doAction() throws SQLException {
+		try {
+			switch (transactionType) {
+				case READ_MODIFY_WRITE:
+					readModifyWrite();
+					break;
+				case TRANSFER:
+					transfer();
+					break;
+			}
+		}
+		catch (SQLException e) {
+			long start = System.nanoTime();
+			try {
+				connection.rollback();
+			}
+			catch (SQLException rollbackFailure) {
+				e.addSuppressed(rollbackFailure);
+			}
+			finally {
+				record(RecordType.TRANSACTION_ROLLBACK, start, System.nanoTime());
+			}
+			throw e;
+		}
+
+		long start = System.nanoTime();
+		connection.commit();
+		record(RecordType.TRANSACTION_COMMIT, start, System.nanoTime());
+	}
+
+	private void readModifyWrite() throws SQLException {
+		long id = keys.next();
+
+		select.setLong(1, id);
+		try (ResultSet resultSet = select.executeQuery()) {
+			if (!resultSet.next()) {
+				return;
+			}
+		}
+		think();
+
+		update.setString(1, RandomNameGenerator.generate());
+		update.setLong(2, id);
+		update.execute();
+		think();
+
+		insert.setString(1, RandomNameGenerator.generate());
+		insert.execute();
+		keySpace.inserted();
+	}
+
+	private void transfer() throws SQLException {
+		long first = keys.next();
+		long second = keys.next();
+
+		// Skewed distributions frequently produce the same key twice, so draw again until the rows differ.
+		for (int attempt = 1; second == first && attempt < MAX_KEY_ATTEMPTS; attempt++) {
+			second = keys.next();
+		}
+
+		// Always lock rows in the same order, so that transfers don't deadlock each other.
+		update.setString(1, RandomNameGenerator.generate());
+		update.setLong(2, Math.min(first, second));
+		update.execute();
+		if (second == first) {
+			return;
+		}
+		think();
+
+		update.setString(1, RandomNameGenerator.generate());
+		update.setLong(2, Math.max(first, second));
+		update.execute();
+	}
+
+	private void think() {
+		if (thinkTime > 0) {
+			pause(thinkTime);
+		}
+	}
+
+}
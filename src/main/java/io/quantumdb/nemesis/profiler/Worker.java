@@ -1,35 +1,61 @@
 package io.quantumdb.nemesis.profiler;
 
-import java.io.IOException;
-import java.io.Writer;
 import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 import io.quantumdb.nemesis.structure.Database;
 import io.quantumdb.nemesis.structure.DatabaseCredentials;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
 
+/**
+ * A Worker repeatedly performs a single type of query against the database and publishes the start and end time of
+ * every query to its ResultBuffer. When the worker is given a target rate (requests per second) it runs as an open
+ * loop: queries are scheduled at fixed intervals, and the latency of each query is measured from its intended start
+ * time rather than from the moment it was actually sent. This way a query which is stalled by a blocking operation is
+ * also charged for all the requests which would have queued up behind it (coordinated omission). A rate of 0 makes
+ * the worker run as a closed loop, firing the next query as soon as the previous one has completed.
+ *
+ * Besides the per query log, every latency is recorded with nanosecond precision into a high dynamic range
+ * histogram, of which interval snapshots can be retrieved using {@link #getIntervalHistogram(Histogram)}.
+ */
 @Slf4j
 @RequiredArgsConstructor
 public abstract class Worker implements Runnable {
 	
+	private static final long MIN_BACKOFF = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long MAX_BACKOFF = TimeUnit.SECONDS.toNanos(10);
+
 	private final AtomicBoolean running = new AtomicBoolean();
+	private final Recorder recorder = new Recorder(3);
 	
 	private final Database backend;
 	private final DatabaseCredentials credentials;
-	private final Writer writer;
+	private final RecordType recordType;
+	private final ResultBuffer results;
 	private final long startingTimestamp;
+	private final int rate;
+
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLongArray errors = new AtomicLongArray(ErrorType.values().length);
+	private final boolean[] loggedErrors = new boolean[ErrorType.values().length];
+
+	private long origin;
+	private long interval;
+	private long intended;
+
+	private boolean connected;
+	private long backoff = MIN_BACKOFF;
 
 	@Override
 	public final void run() {
-		String type = getClass().getSimpleName();
-		
-		try {
-			backend.connect(credentials);
-		} 
-		catch (SQLException e) {
-			log.error(e.getMessage(), e);
+		if (!connect()) {
 			return;
 		}
 
@@ -38,24 +64,171 @@ public abstract class Worker implements Runnable {
 				Thread.sleep(100);
 			}
 			catch (InterruptedException e) {
+				disconnect();
 				return;
 			}
 		}
 		
-		log.debug("{} is running...", type);
-		
+		begin();
 		while (running.get()) {
-			try {
-				long start = System.currentTimeMillis();
-				doAction();
-				long end = System.currentTimeMillis();
-				writer.write(type + "\t" + (start - startingTimestamp) + "\t" + (end - startingTimestamp) + "\t" + (end - start) + "\n");
-			}
-			catch (IOException | SQLException e) {
-				log.warn(e.getMessage(), e);
+			if (!awaitIntendedStart(intended)) {
+				break;
 			}
+			step();
 		}
 		
+		disconnect();
+	}
+	
+	/**
+	 * Connects the worker to the database and prepares its statements.
+	 *
+	 * @return True if the worker is ready to perform requests, false otherwise.
+	 */
+	private boolean connect() {
+		try {
+			backend.connect(credentials);
+			prepareStatements();
+			connected = true;
+			return true;
+		} 
+		catch (SQLException e) {
+			log.error(e.getMessage(), e);
+			return false;
+		}
+	}
+
+	/**
+	 * Marks the moment from which the worker starts performing requests. Must be called once, after the worker has
+	 * been started and before the first call to step().
+	 */
+	private void begin() {
+		log.debug("{} is running...", recordType.getLabel());
+		
+		origin = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - startingTimestamp);
+		interval = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+		intended = System.nanoTime();
+	}
+
+	/**
+	 * Performs a single request, and records its latency. For open loop workers the latency is measured from the
+	 * intended start time of the request, regardless of when step() is actually called. Failed requests are recorded
+	 * as error records. When the connection to the database is lost, subsequent steps try to reconnect with an
+	 * exponentially increasing backoff instead of performing requests.
+	 */
+	private void step() {
+		if (!connected) {
+			reconnect();
+			return;
+		}
+
+		long start;
+		if (interval > 0) {
+			start = intended;
+			intended += interval;
+		}
+		else {
+			start = System.nanoTime();
+		}
+
+		try {
+			doAction();
+			long end = System.nanoTime();
+			recorder.recordValue(end - start);
+			completed.incrementAndGet();
+
+			if (interval == 0) {
+				intended = end;
+			}
+
+			record(recordType, start, end);
+		}
+		catch (SQLException e) {
+			long end = System.nanoTime();
+			ErrorType errorType = ErrorType.classify(e);
+			registerError(errorType, e, start, end);
+
+			if (interval == 0) {
+				intended = end;
+			}
+
+			if (errorType == ErrorType.CONNECTION_LOST) {
+				connected = false;
+				closeQuietly();
+
+				backoff = MIN_BACKOFF;
+				intended = end + backoff;
+			}
+		}
+	}
+
+	private void reconnect() {
+		long start = System.nanoTime();
+		try {
+			backend.connect(credentials);
+			prepareStatements();
+			connected = true;
+			intended = System.nanoTime();
+			log.info("{} reconnected to the database", recordType.getLabel());
+		}
+		catch (SQLException e) {
+			long end = System.nanoTime();
+			registerError(ErrorType.CONNECTION_LOST, e, start, end);
+			closeQuietly();
+
+			backoff = Math.min(backoff * 2, MAX_BACKOFF);
+			intended = end + backoff;
+		}
+	}
+
+	private void registerError(ErrorType errorType, SQLException e, long start, long end) {
+		errors.incrementAndGet(errorType.ordinal());
+		record(errorType.getRecordType(), start, end);
+
+		// Only log the first error of every type in full, so a failing worker doesn't flood the log.
+		if (!loggedErrors[errorType.ordinal()]) {
+			loggedErrors[errorType.ordinal()] = true;
+			log.warn(recordType.getLabel() + " encountered " + errorType + ": " + e.getMessage(), e);
+		}
+		else {
+			log.debug("{} encountered {}: {}", recordType.getLabel(), errorType, e.getMessage());
+		}
+	}
+
+	private void closeQuietly() {
+		try {
+			backend.close();
+		}
+		catch (SQLException e) {
+			log.debug("Could not close connection: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Publishes a record to the result buffer of this worker. Besides the record which is published for every call to
+	 * doAction(), subclasses may use this to log the timing of the individual steps of an action.
+	 *
+	 * @param type The type of record.
+	 * @param start The System.nanoTime() timestamp at which the timed step started.
+	 * @param end The System.nanoTime() timestamp at which the timed step ended.
+	 */
+	void record(RecordType type, long start, long end) {
+		long startMicros = TimeUnit.NANOSECONDS.toMicros(start - origin);
+		long endMicros = TimeUnit.NANOSECONDS.toMicros(end - origin);
+		results.offer(type, startMicros, endMicros);
+	}
+
+	/**
+	 * Pauses the current action for the specified number of milliseconds, for instance to simulate the think time of a
+	 * client between the statements of a transaction. The pause is scheduled like the start of a request: the worker
+	 * parks its own thread (which releases the carrier thread of a virtual thread), and the pause ends early when the
+	 * worker is stopped.
+	 */
+	void pause(long millis) {
+		awaitIntendedStart(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+	}
+
+	private void disconnect() {
 		try {
 			backend.close();
 		}
@@ -63,11 +236,45 @@ public abstract class Worker implements Runnable {
 			log.error(e.getMessage(), e);
 		}
 		
-		log.debug("{} has finished", type);
+		log.debug("{} has finished", recordType.getLabel());
 	}
-	
+
+	/**
+	 * Parks the current thread until the specified System.nanoTime() timestamp. When the worker is already behind
+	 * schedule this returns immediately, so the backlog is worked off back-to-back.
+	 *
+	 * @return False if the worker was stopped while waiting, true otherwise.
+	 */
+	private boolean awaitIntendedStart(long intended) {
+		long remaining = intended - System.nanoTime();
+		while (remaining > 0) {
+			if (!running.get()) {
+				return false;
+			}
+			LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+			remaining = intended - System.nanoTime();
+		}
+		return true;
+	}
+
+	/**
+	 * Called once after the worker has connected to the database, and before the first call to doAction(). Workers
+	 * should prepare the statements they execute here, so that doAction() only needs to bind parameters.
+	 */
+	abstract void prepareStatements() throws SQLException;
+
 	abstract void doAction() throws SQLException;
 
+	/**
+	 * Returns a histogram of all latencies (in nanoseconds) recorded since the previous call to this method.
+	 *
+	 * @param recycle The histogram returned by the previous call, or null. Its contents are replaced.
+	 * @return The latencies recorded during the last interval.
+	 */
+	public Histogram getIntervalHistogram(Histogram recycle) {
+		return recorder.getIntervalHistogram(recycle);
+	}
+
 	public void stop() {
 		running.set(false);
 	}
@@ -76,4 +283,22 @@ public abstract class Worker implements Runnable {
 		running.set(true);
 	}
 
+	/**
+	 * @return The number of requests which have completed successfully so far.
+	 */
+	public long getCompleted() {
+		return completed.get();
+	}
+
+	/**
+	 * @return The number of requests (and reconnection attempts) which have failed with the specified type of error.
+	 */
+	public long getErrors(ErrorType errorType) {
+		return errors.get(errorType.ordinal());
+	}
+
+	public RecordType getRecordType() {
+		return recordType;
+	}
+
 }
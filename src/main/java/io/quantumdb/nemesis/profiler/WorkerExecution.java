@@ -0,0 +1,90 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Describes how the Workers of a Session are mapped onto threads.
+ */
+public enum WorkerExecution {
+
+	/**
+	 * Every Worker runs on its own platform (OS) thread. This limits realistic concurrency to a few hundred workers,
+	 * after which the load generator itself becomes the bottleneck.
+	 */
+	PLATFORM_THREADS {
+		@Override
+		public boolean isAvailable() {
+			return true;
+		}
+
+		@Override
+		public ExecutorService createExecutor(int workers) {
+			return Executors.newFixedThreadPool(Math.max(1, workers));
+		}
+	},
+
+	/**
+	 * Every Worker runs on its own virtual thread, allowing thousands of concurrent clients to be simulated from a
+	 * single process. The JDBC drivers perform their I/O while holding monitors, which pins a virtual thread to its
+	 * carrier thread before Java 24 and would turn a blocked query into a blocked carrier. This mode therefore
+	 * requires Java 24 or newer, and the executor is looked up reflectively to keep the project buildable on Java 8.
+	 */
+	VIRTUAL_THREADS {
+		@Override
+		public boolean isAvailable() {
+			return getJavaVersion() >= MIN_JAVA_VERSION && getFactoryMethod() != null;
+		}
+
+		@Override
+		public ExecutorService createExecutor(int workers) {
+			Method factoryMethod = getFactoryMethod();
+			if (getJavaVersion() < MIN_JAVA_VERSION || factoryMethod == null) {
+				throw new IllegalStateException("Virtual threads require Java " + MIN_JAVA_VERSION
+						+ " or newer, running on: " + System.getProperty("java.version"));
+			}
+
+			try {
+				return (ExecutorService) factoryMethod.invoke(null);
+			}
+			catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException("Could not create virtual thread executor", e);
+			}
+		}
+
+		private Method getFactoryMethod() {
+			try {
+				return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			}
+			catch (NoSuchMethodException e) {
+				return null;
+			}
+		}
+	};
+
+	// Java 24 is the first release in which virtual threads no longer pin their carrier inside synchronized blocks.
+	private static final int MIN_JAVA_VERSION = 24;
+
+	public abstract boolean isAvailable();
+
+	public abstract ExecutorService createExecutor(int workers);
+
+	/**
+	 * @return The feature release of the running JVM, for instance 8 for "1.8" and 24 for "24".
+	 */
+	static int getJavaVersion() {
+		String version = System.getProperty("java.specification.version");
+		if (version.startsWith("1.")) {
+			version = version.substring(2);
+		}
+		try {
+			return Integer.parseInt(version);
+		}
+		catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.util.Random;
+
+/**
+ * Draws ranks from a Zipf distribution over [1, n] using rejection-inversion sampling (W. Hormann and G. Derflinger,
+ * "Rejection-inversion to generate variates from monotone discrete distributions"). Unlike the commonly used
+ * algorithm by Gray et al. this requires no O(n) precomputation of the zeta constant, so it is cheap to construct
+ * even for tables with hundreds of millions of rows.
+ */
+class ZipfianKeyGenerator {
+
+	private final long numberOfElements;
+	private final double exponent;
+	private final Random random;
+
+	private final double hIntegralX1;
+	private final double hIntegralNumberOfElements;
+	private final double s;
+
+	ZipfianKeyGenerator(long numberOfElements, double exponent, Random random) {
+		this.numberOfElements = Math.max(1, numberOfElements);
+		this.exponent = exponent;
+		this.random = random;
+
+		this.hIntegralX1 = hIntegral(1.5) - 1d;
+		this.hIntegralNumberOfElements = hIntegral(this.numberOfElements + 0.5);
+		this.s = 2d - hIntegralInverse(hIntegral(2.5) - h(2));
+	}
+
+	/**
+	 * @return A rank in the range [1, n], where rank 1 is the most popular.
+	 */
+	long nextRank() {
+		while (true) {
+			double u = hIntegralNumberOfElements + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+			double x = hIntegralInverse(u);
+
+			long k = (long) (x + 0.5);
+			if (k < 1) {
+				k = 1;
+			}
+			else if (k > numberOfElements) {
+				k = numberOfElements;
+			}
+
+			if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+				return k;
+			}
+		}
+	}
+
+	private double hIntegral(double x) {
+		double logX = Math.log(x);
+		return helper2((1d - exponent) * logX) * logX;
+	}
+
+	private double h(double x) {
+		return Math.exp(-exponent * Math.log(x));
+	}
+
+	private double hIntegralInverse(double x) {
+		double t = x * (1d - exponent);
+		if (t < -1d) {
+			t = -1d;
+		}
+		return Math.exp(helper1(t) * x);
+	}
+
+	private static double helper1(double x) {
+		if (Math.abs(x) > 1e-8) {
+			return Math.log1p(x) / x;
+		}
+		return 1d - x * (0.5 - x * (1d / 3d - x * 0.25));
+	}
+
+	private static double helper2(double x) {
+		if (Math.abs(x) > 1e-8) {
+			return Math.expm1(x) / x;
+		}
+		return 1d + x * 0.5 * (1d + x * (1d / 3d) * (1d + x * 0.25));
+	}
+
+}
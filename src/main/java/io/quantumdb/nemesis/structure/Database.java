@@ -1,6 +1,7 @@
 package io.quantumdb.nemesis.structure;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -75,6 +76,13 @@ public interface Database {
 	Database getSetupDelegate();
 
 	void query(String query) throws SQLException;
+
+	/**
+	 * Prepares a parameterized statement on the current connection, which can be executed repeatedly with
+	 * different parameters without having the database parse and plan the query again for every execution.
+	 */
+	PreparedStatement prepare(String query) throws SQLException;
+
 	Connection getConnection();
 
 }
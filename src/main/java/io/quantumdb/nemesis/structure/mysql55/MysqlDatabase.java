@@ -184,6 +184,12 @@ public class MysqlDatabase implements Database {
 		}
 	}
 
+	@Override
+	public PreparedStatement prepare(String query) throws SQLException {
+		// Connector/J emulates prepared statements on the client unless explicitly asked to prepare them server-side.
+		return connection.unwrap(com.mysql.jdbc.Connection.class).serverPrepareStatement(query);
+	}
+
 	@Override
 	public Connection getConnection() {
 		return connection;
@@ -21,6 +21,7 @@ import io.quantumdb.nemesis.structure.TableDefinition;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGStatement;
 
 @Slf4j
 @ToString
@@ -195,6 +196,15 @@ public class PostgresDatabase implements Database {
 		}
 	}
 
+	@Override
+	public PreparedStatement prepare(String query) throws SQLException {
+		PreparedStatement statement = connection.prepareStatement(query);
+
+		// Use a named server-side statement from the very first execution onwards.
+		statement.unwrap(PGStatement.class).setPrepareThreshold(1);
+		return statement;
+	}
+
 	@Override
 	public Connection getConnection() {
 		return connection;
@@ -0,0 +1,57 @@
+package io.quantumdb.nemesis;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import io.quantumdb.nemesis.profiler.RecordType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHeatmapTest {
+
+	// 2 minutes, so every column covers 100 ms.
+	private static final long DURATION = 120_000_000;
+
+	private final LatencyHeatmap heatmap = new LatencyHeatmap(DURATION);
+
+	@Test
+	public void testThatLatenciesAreMappedOntoRows() {
+		heatmap.handle(RecordType.SELECT, 0, 50);
+		heatmap.handle(RecordType.SELECT, 0, 100);
+		heatmap.handle(RecordType.SELECT, 0, 1_000);
+		heatmap.handle(RecordType.SELECT, 0, 10_000_000);
+		heatmap.handle(RecordType.SELECT, 0, 100_000_000);
+		heatmap.handle(RecordType.SELECT, 0, 1_000_000_000);
+
+		// Everything up to 0.1 ms ends up in the lowest row, everything from 100 s onwards in the highest row.
+		Assert.assertEquals(2, heatmap.getCount(0, 0));
+		Assert.assertEquals(1, heatmap.getCount(0, LatencyHeatmap.ROWS_PER_DECADE));
+		Assert.assertEquals(1, heatmap.getCount(0, 5 * LatencyHeatmap.ROWS_PER_DECADE));
+		Assert.assertEquals(2, heatmap.getCount(0, LatencyHeatmap.ROWS - 1));
+	}
+
+	@Test
+	public void testThatTimestampsAreMappedOntoColumns() {
+		heatmap.handle(RecordType.UPDATE, 0, 1_000);
+		heatmap.handle(RecordType.UPDATE, 99_999, 100_999);
+		heatmap.handle(RecordType.UPDATE, 100_000, 101_000);
+		heatmap.handle(RecordType.UPDATE, DURATION - 1, DURATION + 999);
+		heatmap.handle(RecordType.UPDATE, DURATION, DURATION + 1_000);
+		heatmap.handle(RecordType.UPDATE, -1, 999);
+
+		int row = LatencyHeatmap.ROWS_PER_DECADE;
+		Assert.assertEquals(2, heatmap.getCount(0, row));
+		Assert.assertEquals(1, heatmap.getCount(1, row));
+		Assert.assertEquals(1, heatmap.getCount(LatencyHeatmap.COLUMNS - 1, row));
+	}
+
+	@Test
+	public void testThatTheHighestLatencyIsRenderedInTheTopRightCorner() {
+		heatmap.handle(RecordType.SELECT, DURATION - 1, DURATION + 100_000_000);
+
+		BufferedImage image = heatmap.render(-1, -1);
+		Assert.assertNotEquals(Color.WHITE.getRGB(), image.getRGB(image.getWidth() - 1, 0));
+		Assert.assertEquals(Color.WHITE.getRGB(), image.getRGB(image.getWidth() - 2, 0));
+	}
+
+}
@@ -0,0 +1,46 @@
+package io.quantumdb.nemesis.analysis;
+
+import io.quantumdb.nemesis.profiler.RecordType;
+import org.HdrHistogram.Histogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PhaseStatisticsTest {
+
+	// Operation from 60s to 70s, with a startup and teardown timeout of 60s (all in microseconds).
+	private final PhaseWindows windows = new PhaseWindows(60_000_000, 70_000_000, 60_000_000, 60_000_000);
+
+	@Test
+	public void testPhaseWindows() {
+		Assert.assertEquals(-1, windows.indexOf(500_000));
+		Assert.assertEquals(Phase.PRE.ordinal(), windows.indexOf(1_000_000));
+		Assert.assertEquals(Phase.DURING.ordinal(), windows.indexOf(60_000_000));
+		Assert.assertEquals(-1, windows.indexOf(70_500_000));
+		Assert.assertEquals(Phase.POST.ordinal(), windows.indexOf(71_000_000));
+		Assert.assertEquals(-1, windows.indexOf(130_000_000));
+	}
+
+	@Test
+	public void testThatMergedStatisticsEqualSinglePass() {
+		PhaseStatistics left = new PhaseStatistics(windows);
+		PhaseStatistics right = new PhaseStatistics(windows);
+		PhaseStatistics all = new PhaseStatistics(windows);
+
+		for (int i = 0; i < 1000; i++) {
+			long start = 60_000_000 + i * 10_000L;
+			long end = start + 1_000 + i;
+			(i % 2 == 0 ? left : right).handle(RecordType.SELECT, start, end);
+			all.handle(RecordType.SELECT, start, end);
+		}
+
+		Histogram merged = left.merge(right).getHistogram(Phase.DURING, RecordType.SELECT);
+		Histogram expected = all.getHistogram(Phase.DURING, RecordType.SELECT);
+
+		Assert.assertEquals(expected.getTotalCount(), merged.getTotalCount());
+		Assert.assertEquals(expected.getValueAtPercentile(99.0), merged.getValueAtPercentile(99.0));
+		Assert.assertEquals(expected.getMaxValue(), merged.getMaxValue());
+		Assert.assertEquals(100.0, left.getThroughput(Phase.DURING, RecordType.SELECT), 0.001);
+		Assert.assertNull(left.getHistogram(Phase.PRE, RecordType.SELECT));
+	}
+
+}
@@ -0,0 +1,58 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.util.List;
+
+import io.quantumdb.nemesis.analysis.StallDetector.Stall;
+import io.quantumdb.nemesis.profiler.RecordType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StallDetectorTest {
+
+	// Stall when nothing completes for 1 second, or when all requests in flight are older than 500 ms.
+	private final StallDetector detector = new StallDetector(1_000_000, 500_000);
+
+	@Test
+	public void testThatSteadyProgressIsNoStall() {
+		for (long start = 0; start < 10_000_000; start += 10_000) {
+			detector.handle(RecordType.SELECT, start, start + 5_000);
+		}
+		Assert.assertTrue(detector.detect().isEmpty());
+	}
+
+	@Test
+	public void testThatBlockedRequestsAreDetected() {
+		// Two workers, both blocked by the same lock between 2s and 5s.
+		for (long start = 0; start < 2_000_000; start += 10_000) {
+			detector.handle(RecordType.UPDATE, start, start + 5_000);
+			detector.handle(RecordType.UPDATE, start + 5_000, start + 10_000);
+		}
+		detector.handle(RecordType.UPDATE, 2_000_000, 5_000_000);
+		detector.handle(RecordType.UPDATE, 2_005_000, 5_000_000);
+		for (long start = 5_000_000; start < 7_000_000; start += 10_000) {
+			detector.handle(RecordType.UPDATE, start, start + 5_000);
+		}
+
+		List<Stall> stalls = detector.detect();
+		Assert.assertEquals(1, stalls.size());
+
+		Stall stall = stalls.get(0);
+		Assert.assertEquals(RecordType.UPDATE, stall.getType());
+		Assert.assertEquals(2_000_000, stall.getStart());
+		Assert.assertEquals(5_000_000, stall.getEnd());
+		Assert.assertEquals(1_000_000, stall.getOverlap(4_000_000, 8_000_000));
+	}
+
+	@Test
+	public void testThatShortHiccupsAreIgnored() {
+		for (long start = 0; start < 2_000_000; start += 10_000) {
+			detector.handle(RecordType.SELECT, start, start + 5_000);
+		}
+		detector.handle(RecordType.SELECT, 2_000_000, 2_300_000);
+		for (long start = 2_300_000; start < 4_000_000; start += 10_000) {
+			detector.handle(RecordType.SELECT, start, start + 5_000);
+		}
+		Assert.assertTrue(detector.detect().isEmpty());
+	}
+
+}
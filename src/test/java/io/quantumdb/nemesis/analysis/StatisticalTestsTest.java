@@ -0,0 +1,59 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatisticalTestsTest {
+
+	@Test
+	public void testPercentile() {
+		long[] values = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+		Assert.assertEquals(5, StatisticalTests.percentile(values, 50.0));
+		Assert.assertEquals(10, StatisticalTests.percentile(values, 99.0));
+		Assert.assertEquals(1, StatisticalTests.percentile(values, 0.0));
+	}
+
+	@Test
+	public void testThatIdenticalSamplesAreNotSignificant() {
+		long[] values = new long[1000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i % 50;
+		}
+		Arrays.sort(values);
+		Assert.assertEquals(1.0, StatisticalTests.mannWhitneyPValue(values, values), 0.001);
+	}
+
+	@Test
+	public void testThatShiftedSamplesAreSignificant() {
+		Random random = new Random(1);
+		long[] left = new long[500];
+		long[] right = new long[500];
+		for (int i = 0; i < left.length; i++) {
+			left[i] = 1000 + random.nextInt(200);
+			right[i] = 1100 + random.nextInt(200);
+		}
+		Arrays.sort(left);
+		Arrays.sort(right);
+
+		Assert.assertTrue(StatisticalTests.mannWhitneyPValue(left, right) < 1e-6);
+
+		double[] interval = StatisticalTests.bootstrapPercentileDifference(left, right, 50.0, 500, 0.95, random);
+		Assert.assertTrue(interval[0] > 50 && interval[1] < 150);
+	}
+
+	@Test
+	public void testHolmAdjustment() {
+		double[] adjusted = StatisticalTests.holmAdjust(new double[] { 0.04, 0.01, 0.03, 0.5 });
+		Assert.assertArrayEquals(new double[] { 0.09, 0.04, 0.09, 0.5 }, adjusted, 1e-9);
+	}
+
+	@Test
+	public void testErfc() {
+		Assert.assertEquals(1.0, StatisticalTests.erfc(0), 1e-7);
+		Assert.assertEquals(0.0455003, StatisticalTests.erfc(2 / Math.sqrt(2)), 1e-6);
+	}
+
+}
@@ -0,0 +1,63 @@
+package io.quantumdb.nemesis.analysis;
+
+import io.quantumdb.nemesis.profiler.RecordType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ThroughputTimelineTest {
+
+	// Intervals of 100 ms.
+	private final ThroughputTimeline timeline = new ThroughputTimeline(100_000);
+
+	@Test
+	public void testThatRequestsAreCountedInTheIntervalInWhichTheyComplete() {
+		timeline.handle(RecordType.SELECT, 0, 99_999);
+		timeline.handle(RecordType.SELECT, 50_000, 100_000);
+		timeline.handle(RecordType.SELECT, 0, 250_000);
+		timeline.handle(RecordType.ERROR, 0, 50_000);
+		timeline.handle(RecordType.OPERATION, 0, 50_000);
+
+		Assert.assertEquals(3, timeline.getBuckets());
+		Assert.assertEquals(1, timeline.getCount(RecordType.SELECT, 0));
+		Assert.assertEquals(1, timeline.getCount(RecordType.SELECT, 1));
+		Assert.assertEquals(1, timeline.getCount(RecordType.SELECT, 2));
+		Assert.assertEquals(10.0, timeline.getThroughput(RecordType.SELECT, 0), 0.001);
+		Assert.assertEquals(10.0, timeline.getThroughput(RecordType.SELECT, 0, 2), 0.001);
+		Assert.assertFalse(timeline.contains(RecordType.ERROR));
+		Assert.assertFalse(timeline.contains(RecordType.OPERATION));
+	}
+
+	@Test
+	public void testThatMergingAddsTheCounts() {
+		ThroughputTimeline other = new ThroughputTimeline(100_000);
+		timeline.handle(RecordType.UPDATE, 0, 50_000);
+		other.handle(RecordType.UPDATE, 0, 60_000);
+		other.handle(RecordType.UPDATE, 0, 450_000);
+
+		timeline.merge(other);
+		Assert.assertEquals(5, timeline.getBuckets());
+		Assert.assertEquals(2, timeline.getCount(RecordType.UPDATE, 0));
+		Assert.assertEquals(1, timeline.getCount(RecordType.UPDATE, 4));
+	}
+
+	@Test
+	public void testThatADipInThroughputIsCountedAsLost() {
+		// 100 requests per second for 10 seconds, 20 per second during the 5 second operation, and 100 afterwards.
+		for (long end = 0; end < 10_000_000; end += 10_000) {
+			timeline.handle(RecordType.UPDATE, end - 5_000, end);
+		}
+		for (long end = 10_000_000; end < 15_000_000; end += 50_000) {
+			timeline.handle(RecordType.UPDATE, end - 5_000, end);
+		}
+		for (long end = 15_000_000; end < 20_000_000; end += 10_000) {
+			timeline.handle(RecordType.UPDATE, end - 5_000, end);
+		}
+
+		PhaseWindows windows = new PhaseWindows(10_000_000, 15_000_000, 10_000_000, 5_000_000);
+		Assert.assertEquals(100.0, timeline.getAverageThroughput(RecordType.UPDATE, windows, Phase.PRE), 0.001);
+		Assert.assertEquals(20.0, timeline.getAverageThroughput(RecordType.UPDATE, windows, Phase.DURING), 0.001);
+		Assert.assertEquals(400, timeline.getThroughputLost(RecordType.UPDATE, windows));
+		Assert.assertEquals(0, timeline.getThroughputLost(RecordType.SELECT, windows));
+	}
+
+}
@@ -0,0 +1,88 @@
+package io.quantumdb.nemesis.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.quantumdb.nemesis.profiler.RecordType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TimelinePyramidTest {
+
+	private static final PhaseWindows WINDOWS = new PhaseWindows(2_000_000, 3_000_000, 2_000_000, 2_000_000);
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final TimelinePyramid pyramid = new TimelinePyramid();
+
+	@Test
+	public void testThatBucketsAreMergedIntoTheNextLevel() throws IOException {
+		pyramid.handle(RecordType.SELECT, 0, 100);
+		pyramid.handle(RecordType.SELECT, 9_999, 10_299);
+		pyramid.handle(RecordType.SELECT, 10_000, 10_050);
+		pyramid.write(folder.getRoot(), WINDOWS);
+
+		// Count, mean and max duration of every bucket.
+		Assert.assertArrayEquals(new long[] { 1, 100, 100 }, slice(readTile(0, 0), 0));
+		Assert.assertArrayEquals(new long[] { 1, 300, 300 }, slice(readTile(0, 0), 9));
+		Assert.assertArrayEquals(new long[] { 2, 200, 300 }, slice(readTile(1, 0), 0));
+		Assert.assertArrayEquals(new long[] { 1, 50, 50 }, slice(readTile(1, 0), 1));
+		Assert.assertArrayEquals(new long[] { 3, 150, 300 }, slice(readTile(3, 0), 0));
+	}
+
+	@Test
+	public void testThatTilesAreSplitAtTheTileSize() throws IOException {
+		pyramid.handle(RecordType.UPDATE, 999_000, 999_010);
+		pyramid.handle(RecordType.UPDATE, 1_000_000, 1_000_020);
+		pyramid.write(folder.getRoot(), WINDOWS);
+
+		long[] first = readTile(0, 0);
+		long[] second = readTile(0, 1);
+		Assert.assertEquals(1000 * 3, first.length);
+		Assert.assertArrayEquals(new long[] { 1, 10, 10 }, slice(first, 999));
+		Assert.assertEquals(3, second.length);
+		Assert.assertArrayEquals(new long[] { 1, 20, 20 }, slice(second, 0));
+		Assert.assertFalse(new File(folder.getRoot(), "level-1-1.js").exists());
+
+		String index = read(new File(folder.getRoot(), "index.js"));
+		Assert.assertTrue(index.contains("\"intervals\": [1000, 10000, 100000, 1000000]"));
+		Assert.assertTrue(index.contains("\"buckets\": [1001, 101, 11, 2]"));
+	}
+
+	@Test
+	public void testThatTheFinestLevelIsDroppedForLongRuns() throws IOException {
+		pyramid.handle(RecordType.SELECT, 0, 100);
+		pyramid.handle(RecordType.SELECT, 3_600_000_000L, 3_600_000_500L);
+		pyramid.write(folder.getRoot(), WINDOWS);
+
+		String index = read(new File(folder.getRoot(), "index.js"));
+		Assert.assertTrue(index.contains("\"intervals\": [10000, 100000, 1000000]"));
+		Assert.assertTrue(index.contains("\"buckets\": [360001, 36001, 3601]"));
+		Assert.assertArrayEquals(new long[] { 1, 500, 500 }, slice(readTile(0, 360), 0));
+		Assert.assertFalse(new File(folder.getRoot(), "level-3-0.js").exists());
+	}
+
+	private long[] readTile(int level, int tile) throws IOException {
+		String contents = read(new File(folder.getRoot(), "level-" + level + "-" + tile + ".js"));
+		Matcher matcher = Pattern.compile("\\[([0-9,]*)\\]").matcher(contents);
+		Assert.assertTrue(matcher.find());
+		return Arrays.stream(matcher.group(1).split(",")).mapToLong(Long::parseLong).toArray();
+	}
+
+	private static long[] slice(long[] values, int bucket) {
+		return Arrays.copyOfRange(values, bucket * 3, bucket * 3 + 3);
+	}
+
+	private static String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+}
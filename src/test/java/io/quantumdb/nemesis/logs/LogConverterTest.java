@@ -0,0 +1,95 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import io.quantumdb.nemesis.profiler.RecordType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogConverterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testThatTextLogSurvivesRoundTripThroughBinaryFormat() throws IOException {
+		List<String> lines = Lists.newArrayList(
+				"SelectWorker\t1001\t1003\t2",
+				"SelectWorker\t1003\t1003\t0",
+				"TransactionCommit\t1010\t1250\t240",
+				"TransactionWorker\t1004\t1250\t246");
+
+		File text = folder.newFile("READER-1.log");
+		Files.write(text.toPath(), lines, StandardCharsets.UTF_8);
+
+		File binary = new File(folder.getRoot(), "READER-1.bin");
+		LogConverter.toBinary(text, binary);
+		Assert.assertEquals(BinaryLogWriter.HEADER_SIZE + lines.size() * BinaryLogWriter.RECORD_SIZE, binary.length());
+
+		File converted = new File(folder.getRoot(), "converted.log");
+		LogConverter.toText(binary, converted);
+		Assert.assertEquals(lines, Files.readAllLines(converted.toPath(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testThatBinaryLogPreservesMicrosecondPrecision() throws IOException {
+		File binary = new File(folder.getRoot(), "UPDATE-1.bin");
+		try (BinaryLogWriter writer = new BinaryLogWriter(binary, 1024)) {
+			writer.write(RecordType.UPDATE, 1_000_123, 1_000_456);
+			writer.write(RecordType.UPDATE, 1_000_500, 1_250_000);
+		}
+
+		List<String> records = Lists.newArrayList();
+		Logs.read(binary, (type, start, end) -> records.add(type + ":" + start + "-" + end));
+
+		Assert.assertEquals(Lists.newArrayList("UPDATE:1000123-1000456", "UPDATE:1000500-1250000"), records);
+	}
+
+	@Test
+	public void testThatBinaryLogCanBeReadInChunks() throws IOException {
+		File binary = new File(folder.getRoot(), "SELECT-1.bin");
+		try (BinaryLogWriter writer = new BinaryLogWriter(binary, 1024)) {
+			for (int i = 0; i < 100; i++) {
+				writer.write(RecordType.SELECT, i * 1_000L, i * 1_000L + i);
+			}
+		}
+
+		List<String> expected = Lists.newArrayList();
+		Logs.read(binary, (type, start, end) -> expected.add(type + ":" + start + "-" + end));
+
+		List<LogChunk> chunks = Logs.split(binary, 10 * BinaryLogWriter.RECORD_SIZE + 3);
+		Assert.assertEquals(10, chunks.size());
+
+		List<String> records = Lists.newArrayList();
+		for (LogChunk chunk : Lists.reverse(chunks)) {
+			List<String> part = Lists.newArrayList();
+			chunk.read((type, start, end) -> part.add(type + ":" + start + "-" + end));
+			records.addAll(0, part);
+		}
+
+		Assert.assertEquals(100, expected.size());
+		Assert.assertEquals(expected, records);
+	}
+
+	@Test
+	public void testThatConvertedLogsAreOnlyListedOnce() throws IOException {
+		File text = folder.newFile("READER-1.log");
+		Files.write(text.toPath(), Lists.newArrayList("SelectWorker\t1001\t1003\t2"), StandardCharsets.UTF_8);
+		LogConverter.toBinary(text, new File(folder.getRoot(), "READER-1.bin"));
+		folder.newFile("UPDATE-1.log");
+		folder.newFile(Logs.OPERATION_LOG);
+
+		File[] logs = Logs.listWorkerLogs(folder.getRoot());
+		Assert.assertEquals(2, logs.length);
+		Assert.assertEquals("READER-1.bin", logs[0].getName());
+		Assert.assertEquals("UPDATE-1.log", logs[1].getName());
+	}
+
+}
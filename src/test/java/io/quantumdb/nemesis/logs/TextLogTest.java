@@ -0,0 +1,48 @@
+package io.quantumdb.nemesis.logs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import io.quantumdb.nemesis.profiler.RecordType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TextLogTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testThatEveryChunkSizeYieldsTheSameRecords() throws IOException {
+		List<String> lines = Lists.newArrayList();
+		for (int i = 0; i < 100; i++) {
+			lines.add("UpdateWorker\t" + (i * 7) + "\t" + (i * 7 + i % 13) + "\t" + (i % 13));
+		}
+
+		File file = folder.newFile("UPDATE-1.log");
+		Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+		for (int chunkSize : new int[] { 1, 7, 29, 64, 1024 }) {
+			TextLogBuffer buffer = new TextLogBuffer();
+			for (TextLog.Chunk chunk : TextLog.split(file, chunkSize)) {
+				chunk.read((type, start, end) -> {
+					Assert.assertEquals(RecordType.UPDATE, type);
+					buffer.append(type, start, end);
+					return true;
+				});
+			}
+
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			buffer.writeTo(output);
+			Assert.assertEquals(String.join("\n", lines) + "\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+
+}
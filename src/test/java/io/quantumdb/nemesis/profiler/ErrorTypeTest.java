@@ -0,0 +1,34 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ErrorTypeTest {
+
+	@Test
+	public void testPostgresStates() {
+		Assert.assertEquals(ErrorType.DEADLOCK, ErrorType.classify(new SQLException("deadlock", "40P01")));
+		Assert.assertEquals(ErrorType.LOCK_TIMEOUT, ErrorType.classify(new SQLException("lock", "55P03")));
+		Assert.assertEquals(ErrorType.SERIALIZATION_FAILURE, ErrorType.classify(new SQLException("retry", "40001")));
+		Assert.assertEquals(ErrorType.CONNECTION_LOST, ErrorType.classify(new SQLException("gone", "08006")));
+		Assert.assertEquals(ErrorType.CONNECTION_LOST, ErrorType.classify(new SQLException("shutdown", "57P01")));
+	}
+
+	@Test
+	public void testMysqlVendorCodes() {
+		Assert.assertEquals(ErrorType.LOCK_TIMEOUT, ErrorType.classify(new SQLException("lock", "HY000", 1205)));
+		Assert.assertEquals(ErrorType.DEADLOCK, ErrorType.classify(new SQLException("deadlock", "40001", 1213)));
+	}
+
+	@Test
+	public void testCauseChain() {
+		SQLException wrapped = new SQLException("wrapper", new SQLTransientConnectionException("timeout"));
+		Assert.assertEquals(ErrorType.CONNECTION_LOST, ErrorType.classify(wrapped));
+		Assert.assertEquals(ErrorType.OTHER, ErrorType.classify(new SQLException("syntax", "42601")));
+		Assert.assertEquals(RecordType.ERROR, ErrorType.OTHER.getRecordType());
+	}
+
+}
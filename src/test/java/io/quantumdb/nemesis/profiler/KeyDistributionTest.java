@@ -0,0 +1,75 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KeyDistributionTest {
+
+	private static final int SAMPLES = 100_000;
+
+	@Test
+	public void testThatAllDistributionsStayWithinKeySpace() {
+		KeySpace keys = new KeySpace(1_000, 50_999);
+		for (KeyDistribution distribution : KeyDistribution.values()) {
+			KeyGenerator generator = distribution.createGenerator(keys, new Random(42));
+			for (int i = 0; i < SAMPLES; i++) {
+				long key = generator.next();
+				Assert.assertTrue(distribution + " generated: " + key, key >= 1_000 && key <= 50_999);
+			}
+		}
+	}
+
+	@Test
+	public void testThatHotspotTargetsHotSetMostOfTheTime() {
+		KeySpace keys = new KeySpace(1, 100_000);
+		KeyGenerator generator = KeyDistribution.HOTSPOT.createGenerator(keys, new Random(42));
+
+		int hits = 0;
+		for (int i = 0; i < SAMPLES; i++) {
+			if (generator.next() <= 20_000) {
+				hits++;
+			}
+		}
+
+		Assert.assertEquals(0.8, (double) hits / SAMPLES, 0.01);
+	}
+
+	@Test
+	public void testThatZipfianIsSkewed() {
+		KeySpace keys = new KeySpace(1, 1_000_000);
+		KeyGenerator generator = KeyDistribution.ZIPFIAN.createGenerator(keys, new Random(42));
+
+		long mostPopular = generator.next();
+		int hits = 0;
+		for (int i = 0; i < SAMPLES; i++) {
+			if (generator.next() == mostPopular) {
+				hits++;
+			}
+		}
+
+		// With a uniform distribution every key would be hit roughly 0.1 times.
+		Assert.assertTrue("Most popular key was hit: " + hits + " times", hits > 100);
+	}
+
+	@Test
+	public void testThatLatestFollowsInserts() {
+		KeySpace keys = new KeySpace(1, 1_000);
+		KeyGenerator generator = KeyDistribution.LATEST.createGenerator(keys, new Random(42));
+
+		for (int i = 0; i < 500; i++) {
+			keys.inserted();
+		}
+
+		int recent = 0;
+		for (int i = 0; i < SAMPLES; i++) {
+			if (generator.next() > 1_000) {
+				recent++;
+			}
+		}
+
+		Assert.assertTrue("Recently inserted keys were hit: " + recent + " times", recent > SAMPLES / 2);
+	}
+
+}
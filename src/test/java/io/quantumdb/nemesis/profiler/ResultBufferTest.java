@@ -0,0 +1,63 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResultBufferTest {
+
+	@Test
+	public void testThatRecordsAreDrainedInOrder() {
+		ResultBuffer buffer = new ResultBuffer(4);
+		Assert.assertTrue(buffer.offer(RecordType.SELECT, 10, 20));
+		Assert.assertTrue(buffer.offer(RecordType.UPDATE, 30, 45));
+
+		StringBuilder drained = new StringBuilder();
+		int count = buffer.drain((type, start, end) -> drained.append(type).append(start).append('-').append(end)
+				.append(' '), 10);
+
+		Assert.assertEquals(2, count);
+		Assert.assertEquals("SELECT10-20 UPDATE30-45 ", drained.toString());
+	}
+
+	@Test
+	public void testThatRecordsAreDroppedWhenBufferIsFull() {
+		ResultBuffer buffer = new ResultBuffer(2);
+		Assert.assertTrue(buffer.offer(RecordType.SELECT, 1, 2));
+		Assert.assertTrue(buffer.offer(RecordType.SELECT, 2, 3));
+		Assert.assertFalse(buffer.offer(RecordType.SELECT, 3, 4));
+
+		Assert.assertEquals(1, buffer.getDropped());
+		Assert.assertEquals(2, buffer.getPeakOccupancy());
+
+		buffer.drain((type, start, end) -> {}, 1);
+		Assert.assertTrue(buffer.offer(RecordType.SELECT, 4, 5));
+	}
+
+	@Test(timeout = 10_000)
+	public void testThatConcurrentProducerAndConsumerSeeAllRecords() throws InterruptedException {
+		int records = 1_000_000;
+		ResultBuffer buffer = new ResultBuffer(1024);
+
+		Thread producer = new Thread(() -> {
+			for (int i = 0; i < records; i++) {
+				while (!buffer.offer(RecordType.INSERT, i, i + 1)) {
+					Thread.yield();
+				}
+			}
+		});
+		producer.start();
+
+		AtomicLong expected = new AtomicLong();
+		while (expected.get() < records) {
+			buffer.drain((type, start, end) -> {
+				Assert.assertEquals(expected.get(), start);
+				Assert.assertEquals(expected.getAndIncrement() + 1, end);
+			}, 100);
+		}
+
+		producer.join();
+	}
+
+}
@@ -0,0 +1,79 @@
+package io.quantumdb.nemesis.profiler;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RowStreamTest {
+
+	@Test
+	public void testThatStreamContainsOneLinePerRow() throws IOException {
+		LongAdder progress = new LongAdder();
+		RowStream stream = new RowStream(1, 10_000, false, 42, progress);
+
+		int lines = 0;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				Assert.assertFalse(line.isEmpty());
+				Assert.assertFalse(line.contains("\t"));
+				lines++;
+			}
+		}
+
+		Assert.assertEquals(10_000, lines);
+		Assert.assertEquals(10_000, progress.sum());
+		Assert.assertEquals(-1, stream.read());
+	}
+
+	@Test
+	public void testThatIdsAreConsecutive() throws IOException {
+		RowStream stream = new RowStream(100, 5_000, true, 42, new LongAdder());
+
+		long expected = 100;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t");
+				Assert.assertEquals(2, fields.length);
+				Assert.assertEquals(expected++, Long.parseLong(fields[0]));
+			}
+		}
+
+		Assert.assertEquals(5_100, expected);
+	}
+
+	@Test
+	public void testThatRangesMatchSingleStream() throws IOException {
+		String whole = readFully(new RowStream(1, 3_000, true, 7, new LongAdder()));
+		String split = readFully(new RowStream(1, 1_234, true, 7, new LongAdder()))
+				+ readFully(new RowStream(1_235, 1_766, true, 7, new LongAdder()));
+
+		Assert.assertEquals(whole, split);
+		Assert.assertNotEquals(whole, readFully(new RowStream(1, 3_000, true, 8, new LongAdder())));
+	}
+
+	@Test
+	public void testThatEmptyStreamEndsImmediately() {
+		RowStream stream = new RowStream(1, 0, false, 42, new LongAdder());
+		Assert.assertEquals(-1, stream.read());
+		Assert.assertEquals(-1, stream.read(new byte[16], 0, 16));
+	}
+
+	private static String readFully(RowStream stream) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1000];
+		int read;
+		while ((read = stream.read(buffer, 0, buffer.length)) != -1) {
+			output.write(buffer, 0, read);
+		}
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+}